@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.AuditListener;
+import study.datajpa.entity.Member;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 감사 필드 처리 비교 : AuditingEntityListener + UUID.randomUUID() vs AuditListener
+ * 한 트랜잭션에서 BATCH건을 저장하는 상황(@PrePersist 호출)을 멀티 스레드로 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class AuditingBenchmark {
+
+    private static final int BATCH = 1000;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    AuditingEntityListener legacyListener;
+    AuditListener auditListener;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("auditing");
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        // 변경 전 설정 : 호출마다 UUID.randomUUID()
+        AuditingHandler legacyHandler = new AuditingHandler(
+                PersistentEntities.of(context.getBean(JpaMetamodelMappingContext.class)));
+        legacyHandler.setAuditorAware(() -> Optional.of(UUID.randomUUID().toString()));
+        legacyListener = new AuditingEntityListener();
+        legacyListener.setAuditingHandler(() -> legacyHandler);
+
+        auditListener = context.getBean(AuditListener.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void auditingEntityListener(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH; i++) {
+                Member member = new Member("member" + i, i);
+                legacyListener.touchForCreate(member);
+                blackhole.consume(member);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void auditListener(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH; i++) {
+                Member member = new Member("member" + i, i);
+                auditListener.prePersist(member);
+                blackhole.consume(member);
+            }
+        });
+    }
+}
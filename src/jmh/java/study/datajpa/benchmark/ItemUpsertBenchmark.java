@@ -0,0 +1,71 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.support.UpsertResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * save() 반복(merge : select 후 없으면 insert)과 upsertAll()의 초당 처리 row 수 비교
+ * 매 호출마다 절반은 이미 있는 id, 절반은 새로운 id를 넣는다.
+ * 새로 만든 Item은 isNew()가 true라서 save()가 persist(이미 있는 id는 중복 키)를 하므로
+ * save() 반복은 있는지 모르는 행으로 보고 등록시간을 채워 merge하도록 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ItemUpsertBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    ConfigurableApplicationContext context;
+    ItemRepository itemRepository;
+    JdbcTemplate jdbcTemplate;
+    List<Item> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("itemUpsert");
+        itemRepository = context.getBean(ItemRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item("item" + i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void seed() {
+        jdbcTemplate.update("delete from item");
+        itemRepository.upsertAll(items.subList(0, ROWS / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveLoop() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            Item item = new Item("item" + i);
+            item.markInserted(now);
+            itemRepository.save(item);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public UpsertResult upsertAll() {
+        return itemRepository.upsertAll(items);
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 높은 동시 요청(64 클라이언트)에서 Tomcat 스레드가 적을 때(8개)의 처리량 비교
+ * - blocking : /members2/{id} (요청 스레드에서 조회)
+ * - async : /members/{id} (queryExecutor에서 조회, 큐가 가득 차면 503)
+ * 같은 findById 쿼리를 실행한다. 응답 코드별 처리량은 AuxCounters(ok, rejected)로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class MemberControllerLoadBenchmark {
+
+    private static final int ROWS = 1000;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+    List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.startWeb("controllerLoad",
+                "server.tomcat.threads.max=8",
+                "datajpa.query-executor.queue-capacity=64");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().executor(Runnable::run).build();
+
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("user" + i, i));
+        }
+        context.getBean(MemberRepository.class).saveAllBatched(members, 500);
+        ids = new ArrayList<>(ROWS);
+        for (Member member : members) {
+            ids.add(member.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Responses {
+        public long ok;
+        public long rejected;
+
+        void record(int status) {
+            if (status == 200) {
+                ok++;
+            } else if (status == 503) {
+                rejected++;
+            }
+        }
+    }
+
+    @Benchmark
+    public int blocking(Responses responses) throws IOException, InterruptedException {
+        return get("/members2/", responses);
+    }
+
+    @Benchmark
+    public int async(Responses responses) throws IOException, InterruptedException {
+        return get("/members/", responses);
+    }
+
+    private int get(String path, Responses responses) throws IOException, InterruptedException {
+        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path + id)).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        responses.record(status);
+        return status;
+    }
+}
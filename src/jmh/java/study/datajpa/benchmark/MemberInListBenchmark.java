@@ -0,0 +1,65 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.InListStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * username 목록 크기별 findByNames 방법(in 쿼리 한 번, 나누어 조회, 임시 테이블 조인) 비교
+ * 목록의 절반은 있는 회원, 절반은 없는 username이다.
+ * padding=false는 in_clause_parameter_padding을 끈 기존 findByNames와 비교하기 위한 것이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberInListBenchmark {
+
+    private static final int MEMBERS = 50_000;
+
+    @Param({"10", "1000", "5000", "40000"})
+    int size;
+
+    @Param({"IN_LIST", "CHUNKED", "TEMP_TABLE", "AUTO"})
+    InListStrategy strategy;
+
+    @Param({"true", "false"})
+    boolean padding;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    List<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("inList",
+                "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=" + padding);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        List<Member> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Member("member" + i, i % 100));
+        }
+        memberRepository.saveAllBatched(members, 500);
+
+        names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(i % 2 == 0 ? "member" + (i * 7 % MEMBERS) : "missing" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findByNames() {
+        return memberRepository.findByNamesUsing(names, strategy);
+    }
+}
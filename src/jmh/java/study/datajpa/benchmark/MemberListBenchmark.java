@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /members 조회 방식 비교 : 엔티티 조회 후 DTO 변환 vs DTO 직접 조회
+ * 처리량과 함께 gc 프로파일러의 gc.alloc.rate.norm(요청당 할당 바이트)을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberListBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"20", "200"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+    PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("memberList");
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        Team team = context.getBean(TeamRepository.class).save(new Team("teamA"));
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("user" + i, i % 100, team));
+        }
+        memberRepository.saveAllBatched(members, 500);
+        pageRequest = PageRequest.of(10, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 기존 방식 : 엔티티(스냅샷, 프록시 포함)를 조회한 후 DTO로 복사
+    @Benchmark
+    public Page<MemberDto> entityPath() {
+        return readOnly.execute(status -> memberRepository.findAllWithCachedCount(pageRequest).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public Page<MemberDto> projectionPath() {
+        return readOnly.execute(status -> memberRepository.findMemberDtoPage(pageRequest));
+    }
+}
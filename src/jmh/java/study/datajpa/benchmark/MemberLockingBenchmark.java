@@ -0,0 +1,71 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.OptimisticMemberUpdater;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 username(HOT_KEYS개)을 16개 스레드가 동시에 수정할 때의 처리량과 지연시간 분포(p99)
+ * - pessimistic : findLockByUsername(PESSIMISTIC_WRITE, select ... for update)
+ * - optimistic : OptimisticMemberUpdater(@Version + 재시도), stripedLock에 따라 JVM 락 사용
+ * SampleTime 결과의 p0.99와 전체 호출 수(처리량)를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class MemberLockingBenchmark {
+
+    private static final int HOT_KEYS = 4;
+
+    @Param({"true", "false"})
+    boolean stripedLock;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    OptimisticMemberUpdater optimisticUpdater;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("locking",
+                "datajpa.optimistic.striped-lock.enabled=" + stripedLock,
+                "datajpa.optimistic.max-attempts=50");
+        memberRepository = context.getBean(MemberRepository.class);
+        optimisticUpdater = context.getBean(OptimisticMemberUpdater.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        for (int i = 0; i < HOT_KEYS; i++) {
+            memberRepository.save(new Member("hot" + i, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer pessimistic() {
+        String username = hotKey();
+        return transactionTemplate.execute(status -> {
+            memberRepository.findLockByUsername(username).forEach(m -> m.setAge(m.getAge() + 1));
+            return 1;
+        });
+    }
+
+    @Benchmark
+    public int optimistic() {
+        return optimisticUpdater.updateByUsername(hotKey(), m -> m.setAge(m.getAge() + 1));
+    }
+
+    private String hotKey() {
+        return "hot" + ThreadLocalRandom.current().nextInt(HOT_KEYS);
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * offset 페이징과 키셋 페이징의 페이지 깊이별 응답 시간 비교
+ * 같은 age의 회원을 page * PAGE_SIZE건 이상 넣고 1페이지와 10,000페이지를 조회한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberPagingBenchmark {
+
+    private static final int AGE = 10;
+    private static final int PAGE_SIZE = 10;
+    private static final int ROWS = 100_000;
+
+    @Param({"1", "10000"})
+    int page;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+
+    int offset;
+    String lastUsername;
+    Long lastId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("paging");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(String.format("user%06d", i), AGE));
+        }
+        memberJpaRepository.saveAllBatched(members, 500);
+
+        // 키셋 페이징은 이전 페이지의 마지막 row를 커서로 사용한다.
+        offset = (page - 1) * PAGE_SIZE;
+        if (offset > 0) {
+            List<Member> previous = memberJpaRepository.findByPage(AGE, offset - 1, 1);
+            lastUsername = previous.get(0).getUsername();
+            lastId = previous.get(0).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> offsetPaging() {
+        return memberJpaRepository.findByPage(AGE, offset, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Member> keysetPaging() {
+        return memberJpaRepository.findByAgeAfter(AGE, lastUsername, lastId, PAGE_SIZE);
+    }
+}
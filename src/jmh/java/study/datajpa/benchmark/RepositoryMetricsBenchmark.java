@@ -0,0 +1,55 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.RepositoryMetrics;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 레파지토리 메소드 계측(RepositoryMetricsAspect) 오버헤드
+ * - record : 기록만(Recorder + LongAdder), 8 스레드 동시 기록
+ * - findById : 2차 캐시에 있는 엔티티 조회(가장 빠른 레파지토리 호출), 계측 on/off 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class RepositoryMetricsBenchmark {
+
+    @Param({"true", "false"})
+    boolean metricsEnabled;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    RepositoryMetrics.MethodMetrics methodMetrics;
+    long memberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("repositoryMetrics",
+                "datajpa.repository-metrics.enabled=" + metricsEnabled);
+        memberRepository = context.getBean(MemberRepository.class);
+        methodMetrics = context.getBean(RepositoryMetrics.class).method("benchmark");
+        memberId = memberRepository.save(new Member("member1", 10)).getId();
+        memberRepository.findById(memberId); // 2차 캐시에 올린다.
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void record() {
+        methodMetrics.record(1_000, 1, false);
+    }
+
+    @Benchmark
+    public Optional<Member> findById() {
+        return memberRepository.findById(memberId);
+    }
+}
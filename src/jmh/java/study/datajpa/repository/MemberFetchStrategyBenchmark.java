@@ -0,0 +1,109 @@
+package study.datajpa.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.benchmark.BenchmarkContexts;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member + Team 조회 방식 비교
+ * 모든 방식이 회원마다 team 이름까지 읽는다.(화면에서 team을 함께 보여주는 경우)
+ * MemberQueryRepository.findAllMembers()가 package-private이므로 같은 패키지에 둔다.
+ *
+ * ./gradlew jmh -Pjmh.includes=MemberFetchStrategyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberFetchStrategyBenchmark {
+
+    @Param({"100", "1000"})
+    int memberCount;
+
+    @Param({"10", "100"})
+    int teamCount;
+
+    // lazy 로딩은 team이 2차 캐시에 있으면 DB를 조회하지 않는다.
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberQueryRepository memberQueryRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("fetchStrategy",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberQueryRepository = context.getBean(MemberQueryRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            teams.add(new Team("team" + i));
+        }
+        context.getBean(TeamRepository.class).saveAll(teams);
+
+        List<Member> members = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(teams.get(i % teamCount));
+            members.add(member);
+        }
+        memberRepository.saveAllBatched(members, 500);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // findAll() 오버라이드 + @EntityGraph
+    @Benchmark
+    public void findAllEntityGraph(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberRepository.findAll(), blackhole));
+    }
+
+    @Benchmark
+    public void findMemberFetchJoin(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberRepository.findMemberFetchJoin(), blackhole));
+    }
+
+    @Benchmark
+    public void findMemberEntityGraph(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberRepository.findMemberEntityGraph(), blackhole));
+    }
+
+    // member만 조회하고 team은 접근할 때 프록시를 초기화(default_batch_fetch_size개씩 in 쿼리로 묶인다.)
+    @Benchmark
+    public void lazyLoading(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberRepository.findMemberCustom(), blackhole));
+    }
+
+    @Benchmark
+    public void memberQueryRepository(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberQueryRepository.findAllMembers(), blackhole));
+    }
+
+    private void consume(List<Member> members, Blackhole blackhole) {
+        for (Member member : members) {
+            blackhole.consume(member.getUsername());
+            // MemberController.init()이 저장하는 회원은 team이 없다.
+            if (member.getTeam() != null) {
+                blackhole.consume(member.getTeam().getName());
+            }
+        }
+    }
+}
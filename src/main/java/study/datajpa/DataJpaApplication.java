@@ -5,9 +5,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.datajpa.audit.AuditContextHolder;
 
 import java.util.Optional;
-import java.util.UUID;
 
 @EnableJpaAuditing
 @SpringBootApplication
@@ -18,8 +18,9 @@ public class DataJpaApplication {
 	}
 
 	@Bean
-	public AuditorAware<String> auditorProvider() {
+	public AuditorAware<String> auditorProvider(AuditContextHolder auditContextHolder) {
 		// BaseEntity에 값을 넣어준다.(실무에서는 세션의 아이디를 넣어준다.)
-		return () -> Optional.of(UUID.randomUUID().toString());
+		// UUID.randomUUID()(SecureRandom) 대신 트랜잭션 단위로 캐시한 값을 사용한다.
+		return () -> Optional.of(auditContextHolder.current().getAuditor());
 	}
 }
@@ -0,0 +1,20 @@
+package study.datajpa.audit;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 등록자/수정자와 등록/수정 시각
+ */
+@Getter
+public class AuditContext {
+
+    private final String auditor;
+    private final LocalDateTime now;
+
+    public AuditContext(String auditor, LocalDateTime now) {
+        this.auditor = auditor;
+        this.now = now;
+    }
+}
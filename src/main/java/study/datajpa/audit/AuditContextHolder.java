@@ -0,0 +1,105 @@
+package study.datajpa.audit;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * 트랜잭션 단위로 감사 정보를 캐시한다.
+ * 등록자/수정자는 트랜잭션마다 한 번만 만들고(실무에서는 세션의 사용자 아이디)
+ * 시각은 flush마다 한 번만 읽어 같은 flush에서 저장/수정되는 엔티티가 공유한다.
+ * 트랜잭션 밖에서는 호출할 때마다 새로 만든다.
+ */
+@Component
+public class AuditContextHolder implements FlushEventListener {
+
+    private static final Object TRANSACTION_KEY = new Object();
+
+    private final EntityManagerFactory emf;
+    private final Clock clock;
+
+    public AuditContextHolder(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.clock = Clock.systemDefaultZone();
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.FLUSH, this);
+    }
+
+    public AuditContext current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new AuditContext(AuditorIds.next(), LocalDateTime.now(clock));
+        }
+        TransactionAudit audit = (TransactionAudit) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (audit == null) {
+            audit = new TransactionAudit(AuditorIds.next());
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, audit);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionAuditSynchronization(audit));
+        }
+        if (audit.context == null) {
+            audit.context = new AuditContext(audit.auditor, LocalDateTime.now(clock));
+        }
+        return audit.context;
+    }
+
+    /**
+     * flush가 끝나면 다음 저장/수정부터 시각을 다시 읽는다.
+     */
+    @Override
+    public void onFlush(FlushEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionAudit audit = (TransactionAudit) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (audit != null) {
+            audit.context = null;
+        }
+    }
+
+    private static class TransactionAudit {
+        private final String auditor;
+        private AuditContext context;
+
+        private TransactionAudit(String auditor) {
+            this.auditor = auditor;
+        }
+    }
+
+    private static class TransactionAuditSynchronization implements TransactionSynchronization {
+
+        private final TransactionAudit audit;
+
+        private TransactionAuditSynchronization(TransactionAudit audit) {
+            this.audit = audit;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, audit);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+    }
+}
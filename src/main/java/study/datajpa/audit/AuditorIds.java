@@ -0,0 +1,21 @@
+package study.datajpa.audit;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUID.randomUUID()는 공유하는 SecureRandom을 사용하므로 대량 저장 시 스레드 간 경합이 생긴다.
+ * 감사 필드의 식별자는 보안 난수일 필요가 없으므로 스레드별 난수(ThreadLocalRandom)로 같은 형식(v4)의 UUID를 만든다.
+ */
+public final class AuditorIds {
+
+    private AuditorIds() {
+    }
+
+    public static String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L; // version 4
+        long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import study.datajpa.jdbc.QueryCountHolder;
+
+/**
+ * 비동기 쿼리 실행(MemberAsyncRepository)
+ * 쿼리 스레드가 커넥션 풀보다 많으면 커넥션을 기다리기만 하므로 풀 크기에 맞춘다.
+ * 큐가 가득 차면 기다리지 않고 바로 TaskRejectedException을 던진다.(컨트롤러에서 503)
+ *
+ * 작업의 SQL 수는 작업을 넣은 스레드(요청)의 QueryCount로 센다.(풀 스레드에 카운트가 쌓이지 않는다.)
+ *
+ * 청크 벌크 연산(MemberChunkedUpdater)은 요청 쿼리와 커넥션을 나누어 쓰지 않도록 별도 풀에서 실행한다.
+ */
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+
+    public static final String QUERY_EXECUTOR = "queryExecutor";
+    public static final String CHUNKED_UPDATE_EXECUTOR = "chunkedUpdateExecutor";
+
+    @Bean(QUERY_EXECUTOR)
+    public ThreadPoolTaskExecutor queryExecutor(
+            @Value("${datajpa.query-executor.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${datajpa.query-executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("query-");
+        executor.setTaskDecorator(QueryCountHolder::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // 작업마다 parallelism개까지만 청크를 넣으므로 큐는 동시에 실행되는 작업 수만큼만 있으면 된다.
+    @Bean(CHUNKED_UPDATE_EXECUTOR)
+    public ThreadPoolTaskExecutor chunkedUpdateExecutor(
+            @Value("${datajpa.chunked-update.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${datajpa.chunked-update.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("chunk-update-");
+        executor.setTaskDecorator(QueryCountHolder::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
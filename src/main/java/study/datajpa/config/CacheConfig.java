@@ -0,0 +1,68 @@
+package study.datajpa.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.entity.CacheRegions;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate 2차 캐시(JCache + Ehcache)
+ * 영역마다 최대 개수(가장 오래 사용하지 않은 것부터 제거)와 TTL을 둔다.
+ * JPQL 벌크 연산은 Hibernate가 대상 엔티티 영역과 쿼리 캐시를 자동으로 무효화한다.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jpaCacheManager(
+            @Value("${datajpa.cache.team.max-entries:1000}") long teamMaxEntries,
+            @Value("${datajpa.cache.team.ttl-seconds:3600}") long teamTtlSeconds,
+            @Value("${datajpa.cache.member.max-entries:10000}") long memberMaxEntries,
+            @Value("${datajpa.cache.member.ttl-seconds:600}") long memberTtlSeconds,
+            @Value("${datajpa.cache.member-query.max-entries:1000}") long memberQueryMaxEntries,
+            @Value("${datajpa.cache.member-query.ttl-seconds:60}") long memberQueryTtlSeconds) {
+        // 기본 URI의 CacheManager는 JVM(클래스 로더)에 하나뿐이라 테스트 컨텍스트 캐시, JMH처럼 컨텍스트가 여러 개 뜨면
+        // 두 번째 컨텍스트의 createCache가 실패한다. 컨텍스트(빈)마다 고유한 URI로 따로 만들고 close로 닫는다.
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:datajpa:jpa-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+
+        createCache(cacheManager, CacheRegions.TEAM, teamMaxEntries, Duration.ofSeconds(teamTtlSeconds));
+        createCache(cacheManager, CacheRegions.MEMBER, memberMaxEntries, Duration.ofSeconds(memberTtlSeconds));
+        createCache(cacheManager, CacheRegions.MEMBER_QUERY, memberQueryMaxEntries, Duration.ofSeconds(memberQueryTtlSeconds));
+        createCache(cacheManager, CacheRegions.DEFAULT_QUERY_RESULTS, memberQueryMaxEntries, Duration.ofSeconds(memberQueryTtlSeconds));
+        // 테이블별 변경 시각이 사라지면 오래된 쿼리 캐시를 돌려줄 수 있으므로 만료시키지 않는다.
+        createCache(cacheManager, CacheRegions.UPDATE_TIMESTAMPS, 10_000, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jpaCacheManagerCustomizer(CacheManager jpaCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jpaCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String region, long maxEntries, Duration ttl) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttl != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+        // JMX(javax.cache:type=CacheStatistics)로 eviction 수를 확인할 수 있도록 통계를 켠다.
+        cacheManager.enableStatistics(region, true);
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.datajpa.jdbc.ReadWriteRoutingDataSource;
+import study.datajpa.jdbc.ReplicaRouter;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 DataSource 분리(datajpa.datasource.routing.enabled=true)
+ * primary, replica 커넥션 풀은 빈으로 등록하지 않고 ReplicaRouter가 관리한다.
+ * 빈으로 등록되는 DataSource는 하나뿐이므로 p6spy는 라우팅 DataSource만 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, RoutingDataSourceProperties.class})
+public class RoutingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties, RoutingDataSourceProperties properties,
+                                       @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        // OSIV가 켜져 있으면 요청의 EntityManager가 replica 커넥션을 잡은 채로 쓰기 트랜잭션에 재사용할 수 있다.(ReplicaRouter)
+        if (openInView) {
+            throw new IllegalStateException("datajpa.datasource.routing.enabled requires spring.jpa.open-in-view=false");
+        }
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReplicaRouter.PRIMARY);
+        primary.setMaximumPoolSize(properties.getMaximumPoolSize());
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicaRouter(primary, replicas, properties.getLagQuery(),
+                properties.getMaxLagMs(), properties.getProbeIntervalMs());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaRouter));
+    }
+}
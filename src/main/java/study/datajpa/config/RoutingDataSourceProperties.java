@@ -0,0 +1,36 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datajpa.datasource.routing.*
+ * primary는 spring.datasource 설정을 그대로 사용한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("datajpa.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 복제 지연(ms)을 돌려주는 쿼리, 없으면 연결만 확인한다.
+    // 예) PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000
+    private String lagQuery;
+    private long maxLagMs = 1000;
+    private long probeIntervalMs = 5000;
+    private int maximumPoolSize = 10;
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 주기 작업(RepositoryMetrics 구간 집계 등)
+ */
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+}
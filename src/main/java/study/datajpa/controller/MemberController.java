@@ -1,49 +1,277 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.ChangeFeed;
+import study.datajpa.dto.ChangePosition;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.MemberDetailDto;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.ResourceVersion;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberAsyncRepository;
+import study.datajpa.repository.MemberJpaRepository;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.ChangeFeedExpiredException;
+import study.datajpa.repository.support.InvalidQueryParameterException;
+import study.datajpa.repository.support.MemberBatchLoader;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+    private static final int MAX_CHANGE_PAGE_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final MemberRepository memberRepository;
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberAsyncRepository memberAsyncRepository;
+    private final MemberBatchLoader memberBatchLoader;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * 쿼리는 queryExecutor 스레드에서 실행하고 요청 스레드는 바로 반환한다.
+     * 동시에 들어온 요청의 id를 모아 in 쿼리 한 번으로 조회한다.(MemberBatchLoader)
+     * 조회한 회원의 수정 시각으로 ETag, Last-Modified를 넣고 304 변환은 HttpEntityMethodProcessor가 한다.
+     * 조건부 요청(If-None-Match, If-Modified-Since)은 수정 시각만 먼저 조회해서 그대로면 회원을 조회하지 않는다.
+     */
     @GetMapping("/members/{id}")
-    public String findmember(@PathVariable("id") long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+    public CompletableFuture<ResponseEntity<String>> findmember(@PathVariable("id") long id, HttpServletRequest request) {
+        String name = "member-" + id;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return loadMember(id, name);
+        }
+        ServletWebRequest conditional = new ServletWebRequest(request);
+        return memberAsyncRepository.findLastModifiedDateById(id)
+                .thenCompose(lastModified -> {
+                    ResourceVersion version = new ResourceVersion(lastModified.orElseThrow(() -> memberNotFound(id)));
+                    return notModified(conditional, version, name)
+                            ? CompletableFuture.completedFuture(
+                                    versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version, name).<String>build())
+                            : loadMember(id, name);
+                });
     }
 
     /**
      * 도메인 컨버터 사용
      * HTTP 요청은 회원 id를 받지만 도메인 클래스 컨버터가 중간에 동작해서 회원 엔티티 객체를 반환한다.
-     * 도메인 클래스 컨버터도 레파지토리를 사용해서 엔티티를 찾는다.
+     * 도메인 클래스 컨버터도 레파지토리를 사용해서 엔티티를 찾는다.(Member는 MemberConverter가 MemberBatchLoader로 찾는다.)
      * 트랜잭션이 없는 상태에서 엔티티를 조회하므로 아래와 같이
      * 도메인 클래스 컨버터로 엔티티를 파라미터로 받을 때는 단순 조회용으로만 사용해야 한다.
      */
     @GetMapping("/members2/{id}")
-    public String findmember(@PathVariable("id") Member member) {
+    public String findmember(@PathVariable(value = "id", required = false) Member member) {
+        if (member == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found");
+        }
         return member.getUsername();
     }
 
+    /**
+     * 엔티티를 조회한 후 DTO로 바꾸지 않고 DTO로 바로 조회한다.(영속성 컨텍스트를 거치지 않음)
+     * 정렬은 id, username, age, teamName만 가능하다.
+     * 회원/팀 변경의 마지막 커밋 순번이 그대로면 목록을 조회하지 않고 304를 돌려준다.
+     */
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        // Page<MemberDto> map = page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
-        // Page<MemberDto> map = page.map(m -> new MemberDto(m));
-        Page<MemberDto> map = page.map(MemberDto::new);
-        return map;
+    public CompletableFuture<ResponseEntity<Page<MemberDto>>> list(@PageableDefault(size = 5) Pageable pageable,
+                                                                    HttpServletRequest request) {
+        // Page<Member> page = memberRepository.findAllWithCachedCount(pageable);
+        // Page<MemberDto> map = page.map(MemberDto::new);
+        ServletWebRequest conditional = new ServletWebRequest(request);
+        return memberAsyncRepository.findMemberListVersion()
+                .thenCompose(version -> notModified(conditional, version, "members")
+                        ? CompletableFuture.completedFuture(
+                                versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version, "members").build())
+                        : memberAsyncRepository.findMemberDtoPage(pageable)
+                                .thenApply(page -> versioned(ResponseEntity.ok(), version, "members").body(page)));
+    }
+
+    /**
+     * /members?expand=team,team.members 처럼 요청한 연관관계만 함께 로딩해서 내려준다.
+     * team은 조인으로, team.members는 조회 후 배치(in 쿼리)로 가져온다.
+     * 정렬은 /members와 같이 id, username, age, teamName만 가능하다.
+     */
+    @GetMapping(value = "/members", params = "expand")
+    public CompletableFuture<ResponseEntity<Page<MemberDetailDto>>> listExpanded(@PageableDefault(size = 5) Pageable pageable,
+                                                                                  @RequestParam("expand") Set<String> expand,
+                                                                                  HttpServletRequest request) {
+        ServletWebRequest conditional = new ServletWebRequest(request);
+        return memberAsyncRepository.findMemberListVersion()
+                .thenCompose(version -> notModified(conditional, version, "members")
+                        ? CompletableFuture.completedFuture(
+                                versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version, "members").build())
+                        : memberAsyncRepository.findMemberDetailPage(pageable, expand)
+                                .thenApply(page -> versioned(ResponseEntity.ok(), version, "members").body(page)));
+    }
+
+    /**
+     * 키셋 페이징
+     * /members?cursor= 로 첫 페이지를 요청하고 응답의 nextCursor를 다음 요청의 cursor로 넘긴다.
+     * 페이지가 깊어져도 offset 페이징처럼 앞의 row를 읽고 버리지 않는다.
+     */
+    @GetMapping(value = "/members", params = "cursor")
+    public CompletableFuture<CursorPage<MemberDto>> listByCursor(@RequestParam("cursor") String cursor,
+                                              @RequestParam(value = "size", defaultValue = "5") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        long lastId;
+        try {
+            lastId = CursorPage.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor", e);
+        }
+
+        // 다음 페이지 존재 여부를 알기 위해 하나 더 조회한다.
+        return memberAsyncRepository.findMemberDtoAfter(lastId, PageRequest.of(0, size + 1))
+                .thenApply(content -> {
+                    if (content.size() <= size) {
+                        return new CursorPage<>(content, null);
+                    }
+                    List<MemberDto> page = content.subList(0, size);
+                    return new CursorPage<>(page, CursorPage.encode(page.get(size - 1).getId()));
+                });
+    }
+
+    /**
+     * 변경 피드
+     * 처음에는 /members/changes?since=2021-11-01T00:00:00 으로 요청하고 이후에는 응답의 token을 그대로 넘긴다.
+     * 변경/삭제된 회원만 (커밋 순번, id) 순서로 내려주고 hasMore가 false가 될 때까지 이어서 요청하면 된다.
+     * 토큰(since)이 삭제 기록 보관 기간보다 오래되었으면 410(Gone) : 전체를 다시 받고 새 since로 시작해야 한다.
+     */
+    @GetMapping("/members/changes")
+    public CompletableFuture<ChangeFeed> changes(
+            @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "token", required = false) String token,
+            @RequestParam(value = "size", defaultValue = "100") int size) {
+        if (size < 1 || size > MAX_CHANGE_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CHANGE_PAGE_SIZE);
+        }
+        if (token != null) {
+            ChangePosition after;
+            try {
+                after = ChangePosition.decode(token);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid token", e);
+            }
+            return memberAsyncRepository.findChangesAfter(after, size);
+        }
+        if (since != null) {
+            return memberAsyncRepository.findChangesSince(since, size);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since or token is required");
+    }
+
+    /**
+     * 전체 회원을 NDJSON(한 줄에 JSON 하나)으로 내려준다.
+     * 조회되는 대로 응답 스트림에 바로 쓰고 STREAM_FETCH_SIZE마다 flush하므로 회원 수와 관계없이 힙 사용량이 일정하다.
+     */
+    @GetMapping(value = "/members/stream", produces = NDJSON)
+    public void stream(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            memberJpaRepository.forEachMemberDto(STREAM_FETCH_SIZE, new Consumer<MemberDto>() {
+                private long count;
+
+                @Override
+                public void accept(MemberDto memberDto) {
+                    try {
+                        generator.writeObject(memberDto);
+                        generator.writeRaw('\n');
+                        if (++count % STREAM_FETCH_SIZE == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * If-None-Match(ETag), If-Modified-Since(Last-Modified)를 확인한다.
+     * 응답 없이 만든 ServletWebRequest는 요청 헤더만 읽으므로 queryExecutor 스레드에서 호출해도 된다.(응답 헤더는 versioned)
+     * 요청 URL(페이지, 정렬 파라미터)마다 별도 리소스이므로 ETag에 파라미터를 넣지 않는다.
+     */
+    private static boolean notModified(ServletWebRequest conditional, ResourceVersion version, String name) {
+        return conditional.checkNotModified(version.eTag(name), version.lastModifiedMillis());
+    }
+
+    private CompletableFuture<ResponseEntity<String>> loadMember(long id, String name) {
+        return memberBatchLoader.load(id)
+                .thenApply(found -> {
+                    Member member = found.orElseThrow(() -> memberNotFound(id));
+                    return versioned(ResponseEntity.ok(), new ResourceVersion(member.getLastModifiedDate()), name)
+                            .body(member.getUsername());
+                });
+    }
+
+    // CompletableFuture 안에서 던져도 스프링이 CompletionException을 벗겨서 처리한다.
+    private static ResponseStatusException memberNotFound(long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + id);
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(ResponseEntity.BodyBuilder builder, ResourceVersion version, String name) {
+        builder.eTag(version.eTag(name));
+        if (version.lastModifiedMillis() >= 0) {
+            builder.lastModified(version.lastModifiedMillis());
+        }
+        return builder;
+    }
+
+    // 지원하지 않는 expand 경로, 정렬 속성(그 밖의 IllegalArgumentException은 서버 오류로 둔다.)
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<String> badRequest(InvalidQueryParameterException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // 변경 피드의 토큰(since)이 삭제 기록 보관 기간보다 오래되었다.(전체를 다시 받아야 한다.)
+    @ExceptionHandler(ChangeFeedExpiredException.class)
+    public ResponseEntity<String> gone(ChangeFeedExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+    }
+
+    // queryExecutor 큐가 가득 차면 대기시키지 않고 바로 503을 돌려준다.
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> serviceUnavailable(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("too many requests");
     }
 
     // @PostConstruct : 어플레케이션 실행 시 함께 실행된다.
@@ -54,8 +282,11 @@ public class MemberController {
 
     // @PostConstruct
     public void initForPaging() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i, i));
+            members.add(new Member("user" + i, i));
         }
+        // save()를 반복하면 row마다 트랜잭션과 insert가 나가므로 배치로 저장한다.
+        memberRepository.saveAllBatched(members, 100);
     }
 }
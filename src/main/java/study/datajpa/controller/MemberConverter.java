@@ -0,0 +1,42 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.MemberBatchLoader;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * /members2/{id}의 도메인 클래스 컨버터(DomainClassConverter) 대신 MemberBatchLoader로 조회한다.
+ * 스프링 부트가 Converter 빈을 MVC에 등록하며 String -> Member는 DomainClassConverter보다 먼저 선택된다.
+ * 요청 스레드는 배치 조회가 끝날 때까지 기다린다.
+ *
+ * 회원이 없으면 null을 돌려주므로 컨트롤러는 @PathVariable(required = false)로 받아 404로 바꾼다.
+ * 숫자가 아닌 id는 IllegalArgumentException(스프링이 400으로 바꾼다.), 조회 실패는 CompletionException을 벗긴 원인을 던진다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberConverter implements Converter<String, Member> {
+
+    private final MemberBatchLoader memberBatchLoader;
+
+    @Override
+    public Member convert(String source) {
+        long id;
+        try {
+            id = Long.parseLong(source);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid member id: " + source, e);
+        }
+        try {
+            return memberBatchLoader.load(id).join().orElse(null);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.BatchLoaderStatsDto;
+import study.datajpa.dto.CacheStatsDto;
+import study.datajpa.dto.DataSourceRouteStatsDto;
+import study.datajpa.dto.IndexAdviceDto;
+import study.datajpa.dto.RepositoryMethodStatsDto;
+import study.datajpa.dto.SqlStatementStatsDto;
+import study.datajpa.dto.UsernameIndexStatsDto;
+import study.datajpa.jdbc.IndexAdvisor;
+import study.datajpa.jdbc.ReplicaRouter;
+import study.datajpa.jdbc.SqlTelemetry;
+import study.datajpa.repository.support.MemberBatchLoader;
+import study.datajpa.repository.support.MemberUsernameIndex;
+import study.datajpa.repository.support.RepositoryMetrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 운영 중 성능 지표 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final EntityManagerFactory emf;
+    private final ObjectProvider<MemberUsernameIndex> usernameIndex;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+    private final ObjectProvider<IndexAdvisor> indexAdvisor;
+    private final ObjectProvider<SqlTelemetry> sqlTelemetry;
+    private final RepositoryMetrics repositoryMetrics;
+    private final MemberBatchLoader memberBatchLoader;
+
+    /**
+     * 2차 캐시 영역별 hit/miss/put(Hibernate 통계)과 eviction(JCache 통계) 수
+     */
+    @GetMapping("/stats/cache")
+    public List<CacheStatsDto> cache() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        List<CacheStatsDto> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            result.add(new CacheStatsDto(region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    evictionCount(region)));
+        }
+        return result;
+    }
+
+    /**
+     * username 인덱스 조회/오탐 수(datajpa.username-index.enabled=true일 때만)
+     */
+    @GetMapping("/stats/username-index")
+    public ResponseEntity<UsernameIndexStatsDto> usernameIndex() {
+        MemberUsernameIndex index = usernameIndex.getIfAvailable();
+        if (index == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(index.stats());
+    }
+
+    /**
+     * 경로(primary, replica)별 커넥션 수, 복제 지연, 커넥션 풀 상태(datajpa.datasource.routing.enabled=true일 때만)
+     */
+    @GetMapping("/stats/datasource")
+    public ResponseEntity<List<DataSourceRouteStatsDto>> dataSource() {
+        ReplicaRouter router = replicaRouter.getIfAvailable();
+        if (router == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(router.stats());
+    }
+
+    /**
+     * 레파지토리 메소드별 호출 수, row 수, 에러 수, 지연시간 분포(마지막 집계 구간, p99가 큰 순서)
+     */
+    @GetMapping("/stats/repository")
+    public List<RepositoryMethodStatsDto> repository() {
+        return repositoryMetrics.lastInterval();
+    }
+
+    /**
+     * findById 배치 조회의 배치 크기, 채움 비율, 배치를 기다린 시간
+     */
+    @GetMapping("/stats/member-loader")
+    public BatchLoaderStatsDto memberLoader() {
+        return memberBatchLoader.stats();
+    }
+
+    /**
+     * SQL 문장(리터럴 제거)별 실행 수, 실행 시간(합계/평균/최대), row 수(실행 시간 합계가 큰 순서로 top개)
+     */
+    @GetMapping("/stats/sql")
+    public ResponseEntity<List<SqlStatementStatsDto>> sql(@RequestParam(value = "top", defaultValue = "20") int top) {
+        SqlTelemetry telemetry = sqlTelemetry.getIfAvailable();
+        if (telemetry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(telemetry.top(top));
+    }
+
+    /**
+     * 실행 시간 합계가 큰 SQL의 EXPLAIN 결과와 추천 인덱스(datajpa.index-advisor.enabled=true일 때만)
+     * 조회만 하고 DDL은 실행하지 않는다.
+     */
+    @GetMapping("/stats/index-advisor")
+    public ResponseEntity<List<IndexAdviceDto>> indexAdvisor(@RequestParam(value = "top", defaultValue = "10") int top) {
+        return analyzeIndexes(top, false);
+    }
+
+    /**
+     * 추천 인덱스를 임시로 만들어 전후 실행 시간을 잰다.(DDL을 실행하므로 GET이 아니라 POST)
+     */
+    @PostMapping("/stats/index-advisor/measure")
+    public ResponseEntity<List<IndexAdviceDto>> measureIndexes(@RequestParam(value = "top", defaultValue = "10") int top) {
+        return analyzeIndexes(top, true);
+    }
+
+    private ResponseEntity<List<IndexAdviceDto>> analyzeIndexes(int top, boolean measure) {
+        IndexAdvisor advisor = indexAdvisor.getIfAvailable();
+        if (advisor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(advisor.analyze(top, measure));
+    }
+
+    private long evictionCount(String region) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Set<ObjectName> names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += (Long) mBeanServer.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (JMException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.support.InvalidQueryParameterException;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    /**
+     * 팀 목록과 팀별 회원 목록
+     * 정렬은 id, name만 가능하다.
+     */
+    @GetMapping("/teams")
+    public Page<TeamDto> list(@PageableDefault(size = 5) Pageable pageable) {
+        return teamRepository.findTeamDtoPage(pageable);
+    }
+
+    // 허용하지 않은 정렬 속성
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<String> badRequest(InvalidQueryParameterException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
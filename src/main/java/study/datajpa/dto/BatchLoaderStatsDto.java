@@ -0,0 +1,29 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class BatchLoaderStatsDto {
+
+    private long requestCount;
+    private long batchCount;
+    private long keyCount; // 배치마다 중복을 뺀 id 수의 합
+    private double averageBatchSize;
+    private double fillRatio; // 평균 배치 크기 / max-batch-size
+    // 첫 요청부터 쿼리를 보낼 때까지 기다린 시간(마이크로초, 마지막 조회 이후 구간)
+    private long p50WaitMicros;
+    private long p99WaitMicros;
+    private long maxWaitMicros;
+
+    public BatchLoaderStatsDto(long requestCount, long batchCount, long keyCount, int maxBatchSize,
+                               long p50WaitMicros, long p99WaitMicros, long maxWaitMicros) {
+        this.requestCount = requestCount;
+        this.batchCount = batchCount;
+        this.keyCount = keyCount;
+        this.averageBatchSize = batchCount == 0 ? 0 : (double) keyCount / batchCount;
+        this.fillRatio = averageBatchSize / maxBatchSize;
+        this.p50WaitMicros = p50WaitMicros;
+        this.p99WaitMicros = p99WaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDto {
+
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+    private double hitRatio;
+
+    public CacheStatsDto(String region, long hitCount, long missCount, long putCount, long evictionCount) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        long requestCount = hitCount + missCount;
+        this.hitRatio = requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 변경 피드 결과
+ * changes는 (커밋 순번, id) 순서이고 token을 다음 요청에 그대로 넘기면 이어서 조회한다.
+ * 변경이 없어도 token은 항상 돌려준다.(hasMore가 false면 지금까지의 변경을 모두 받은 것)
+ */
+@Getter
+public class ChangeFeed {
+
+    private final List<MemberChange> changes;
+    private final String token;
+    private final boolean hasMore;
+
+    public ChangeFeed(List<MemberChange> changes, ChangePosition position, boolean hasMore) {
+        this.changes = changes;
+        this.token = position.encode();
+        this.hasMore = hasMore;
+    }
+}
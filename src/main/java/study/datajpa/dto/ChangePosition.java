@@ -0,0 +1,63 @@
+package study.datajpa.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * 변경 피드의 위치(high-water mark) : (커밋 순번, id) 순서로 정렬했을 때 마지막으로 받은 항목
+ * 커밋 순번은 커밋 순서대로 증가하므로(MemberChangeSequencer) 이 위치보다 앞에 새 변경이 커밋되지 않는다.
+ * 토큰은 Base64url("chg:" + 순번 + "|" + id)이다.
+ */
+@Getter
+@EqualsAndHashCode
+public class ChangePosition implements Comparable<ChangePosition> {
+
+    private static final String PREFIX = "chg:";
+    private static final Comparator<ChangePosition> ORDER = Comparator
+            .comparingLong(ChangePosition::getSeq)
+            .thenComparingLong(ChangePosition::getId);
+
+    private final long seq;
+    private final long id;
+
+    public ChangePosition(long seq, long id) {
+        this.seq = seq;
+        this.id = id;
+    }
+
+    // seq 순번까지(해당 순번 포함)의 변경을 모두 받은 위치
+    public static ChangePosition through(long seq) {
+        return new ChangePosition(seq, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(ChangePosition other) {
+        return ORDER.compare(this, other);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + seq + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 형식이 맞지 않으면 IllegalArgumentException
+     */
+    public static ChangePosition decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = decoded.lastIndexOf('|');
+        if (!decoded.startsWith(PREFIX) || separator < 0) {
+            throw new IllegalArgumentException("invalid token: " + token);
+        }
+        try {
+            return new ChangePosition(Long.parseLong(decoded.substring(PREFIX.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid token: " + token, e);
+        }
+    }
+}
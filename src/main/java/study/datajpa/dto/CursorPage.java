@@ -0,0 +1,49 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 키셋 페이징 결과
+ * nextCursor를 다음 요청의 cursor로 그대로 넘기면 이어서 조회한다.(마지막 페이지면 null)
+ */
+@Getter
+public class CursorPage<T> {
+
+    private static final String PREFIX = "id:";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 빈 cursor는 첫 페이지(0)를 의미한다.
+     * 형식이 맞지 않으면 IllegalArgumentException
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor);
+        }
+        return Long.parseLong(decoded.substring(PREFIX.length()));
+    }
+}
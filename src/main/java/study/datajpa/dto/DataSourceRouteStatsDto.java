@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DataSourceRouteStatsDto {
+
+    private String route;
+    private boolean healthy;
+    private long lagMillis;
+    private long routedCount; // 이 경로로 가져간 커넥션 수
+    private long fallbackCount; // 정상 replica가 없어 primary로 보낸 수(primary만)
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// 지연시간은 마이크로초, 측정하지 않았으면 beforeMicros/afterMicros는 null
+@Data
+@AllArgsConstructor
+public class IndexAdviceDto {
+
+    private String fingerprint;
+    private long count;
+    private long totalMicros;
+    private String plan;
+    private List<String> scannedTables;
+    private String ddl;
+    private Long beforeMicros;
+    private Long afterMicros;
+}
@@ -0,0 +1,42 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 변경 피드(/members/changes)의 항목
+ * 삭제된 회원은 deleted = true이고 id, modifiedDate(삭제 시각), changeSeq만 채운다.
+ * 순서는 커밋 순번(changeSeq)이고 modifiedDate는 참고용이다.(flush 시각이므로 커밋 순서와 다를 수 있다.)
+ */
+@Data
+public class MemberChange {
+
+    private Long id;
+    private String username;
+    private int age;
+    private String teamName;
+    private boolean deleted;
+    private LocalDateTime modifiedDate;
+    private long changeSeq;
+
+    public MemberChange(Long id, String username, int age, String teamName, LocalDateTime modifiedDate, Long changeSeq) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+        this.modifiedDate = modifiedDate;
+        this.changeSeq = changeSeq;
+    }
+
+    public MemberChange(Long id, LocalDateTime deletedDate, Long changeSeq) {
+        this.id = id;
+        this.deleted = true;
+        this.modifiedDate = deletedDate;
+        this.changeSeq = changeSeq;
+    }
+
+    public ChangePosition position() {
+        return new ChangePosition(changeSeq, id);
+    }
+}
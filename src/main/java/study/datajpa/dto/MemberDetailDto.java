@@ -0,0 +1,31 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import study.datajpa.entity.Member;
+
+import java.util.Set;
+
+/**
+ * ?expand= 로 요청한 연관관계만 채운다.(expand=team : team, expand=team.members : team과 팀의 회원 목록)
+ * 요청하지 않은 연관관계는 읽지 않으므로 지연 로딩이 일어나지 않는다.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberDetailDto {
+
+    private Long id;
+    private String username;
+    private int age;
+    private TeamDto team;
+
+    public MemberDetailDto(Member member, Set<String> expand) {
+        this.id = member.getId();
+        this.username = member.getUsername();
+        this.age = member.getAge();
+        boolean withMembers = expand.contains("team.members");
+        if ((withMembers || expand.contains("team")) && member.getTeam() != null) {
+            this.team = new TeamDto(member.getTeam(), withMembers);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 지연시간은 마이크로초
+@Data
+@AllArgsConstructor
+public class RepositoryMethodStatsDto {
+
+    private String method;
+    private long intervalStart;
+    private long intervalEnd;
+    private long count;
+    private long errorCount;
+    private long rowCount;
+    private long meanMicros;
+    private long p50Micros;
+    private long p90Micros;
+    private long p99Micros;
+    private long p999Micros;
+    private long maxMicros;
+}
@@ -0,0 +1,43 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * 조건부 GET(ETag, Last-Modified)용 리소스 버전
+ * 한 회원은 BaseTimeEntity.lastModifiedDate, 목록은 변경 피드의 커밋 순번(MemberChangeSequencer)
+ * 수정 시각은 트랜잭션 시작 시각이라 커밋 순서와 다르므로 목록에는 쓰지 않는다.(Last-Modified 없이 ETag만)
+ */
+@Getter
+public class ResourceVersion {
+
+    private final LocalDateTime lastModified;
+    private final Long seq;
+
+    public ResourceVersion(LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+        this.seq = null;
+    }
+
+    public ResourceVersion(long seq) {
+        this.lastModified = null;
+        this.seq = seq;
+    }
+
+    // 같은 초에 여러 번 수정될 수 있으므로 ETag는 마이크로초까지 사용한다.(Last-Modified는 초 단위)
+    public String eTag(String name) {
+        if (seq != null) {
+            return "W/\"" + name + "-s" + Long.toHexString(seq) + "\"";
+        }
+        long micros = lastModified == null ? 0
+                : lastModified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastModified.getNano() / 1_000;
+        return "W/\"" + name + "-" + Long.toHexString(micros) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
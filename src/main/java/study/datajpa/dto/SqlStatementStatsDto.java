@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import study.datajpa.jdbc.QueryType;
+
+// 실행 시간은 마이크로초
+@Data
+@AllArgsConstructor
+public class SqlStatementStatsDto {
+
+    private String fingerprint;
+    private QueryType type;
+    private long count;
+    private long errorCount;
+    private long totalMicros;
+    private long avgMicros;
+    private long maxMicros;
+    private long rows;
+}
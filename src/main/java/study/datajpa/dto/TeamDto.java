@@ -0,0 +1,32 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// members는 요청했을 때만 채운다.(응답에서는 생략)
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TeamDto {
+
+    private Long id;
+    private String name;
+    private List<MemberDto> members;
+
+    public TeamDto(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public TeamDto(Team team, boolean withMembers) {
+        this(team.getId(), team.getName());
+        if (withMembers) {
+            this.members = team.getMembers().stream()
+                    .map(member -> new MemberDto(member.getId(), member.getUsername(), team.getName()))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class UsernameIndexStatsDto {
+
+    private long size;
+    private long lookupCount;
+    private long skippedCount; // DB를 조회하지 않은 수(없는 username)
+    private long falsePositiveCount; // Bloom filter는 통과했지만 맵에 없던 수
+    private double falsePositiveRate; // 없는 username 중 Bloom filter를 통과한 비율
+    private double expectedFalsePositiveRate;
+    private long rebuildCount;
+    private boolean ready;
+
+    public UsernameIndexStatsDto(long size, long lookupCount, long skippedCount, long falsePositiveCount,
+                                 double expectedFalsePositiveRate, long rebuildCount, boolean ready) {
+        this.size = size;
+        this.lookupCount = lookupCount;
+        this.skippedCount = skippedCount;
+        this.falsePositiveCount = falsePositiveCount;
+        this.falsePositiveRate = skippedCount == 0 ? 0 : (double) falsePositiveCount / skippedCount;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+        this.rebuildCount = rebuildCount;
+        this.ready = ready;
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.audit.AuditContextHolder;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * BaseTimeEntity, BaseEntity의 감사 필드를 채우는 엔티티 리스너
+ * AuditingEntityListener는 엔티티마다 리플렉션으로 필드를 찾고 시각을 읽지만
+ * 이 리스너는 메소드를 직접 호출하고 트랜잭션(flush) 단위로 캐시한 AuditContext를 사용한다.
+ *
+ * 스프링 부트는 엔티티 리스너를 스프링 빈으로 만들어준다.
+ * 리스너는 EntityManagerFactory를 만드는 중에 생성되므로 AuditContextHolder(EntityManagerFactory 필요)는 처음 사용할 때 가져온다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditListener {
+
+    private final ObjectProvider<AuditContextHolder> auditContextHolderProvider;
+    private AuditContextHolder auditContextHolder;
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markCreated(auditContextHolder().current());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markModified(auditContextHolder().current());
+        }
+    }
+
+    private AuditContextHolder auditContextHolder() {
+        if (auditContextHolder == null) {
+            auditContextHolder = auditContextHolderProvider.getObject();
+        }
+        return auditContextHolder;
+    }
+}
@@ -3,14 +3,18 @@ package study.datajpa.entity;
 import lombok.Getter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.audit.AuditContext;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+/**
+ * AuditingEntityListener 대신 AuditListener가 필드를 직접 채운다.(리플렉션 없음)
+ * @CreatedDate, @LastModifiedDate는 어떤 필드가 감사 필드인지 표시하는 용도로 남겨둔다.
+ */
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
 public class BaseTimeEntity {
@@ -21,4 +25,14 @@ public class BaseTimeEntity {
 
     @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    // 최초 저장 시 수정일자도 함께 넣는다.(AuditingEntityListener와 동일)
+    void markCreated(AuditContext context) {
+        createdDate = context.getNow();
+        lastModifiedDate = context.getNow();
+    }
+
+    void markModified(AuditContext context) {
+        lastModifiedDate = context.getNow();
+    }
 }
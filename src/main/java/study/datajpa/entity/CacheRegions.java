@@ -0,0 +1,20 @@
+package study.datajpa.entity;
+
+/**
+ * 2차 캐시 영역 이름
+ * 영역마다 최대 개수, TTL을 따로 설정하고(CacheConfig) 통계도 영역 단위로 확인한다.(/stats/cache)
+ */
+public final class CacheRegions {
+
+    public static final String TEAM = "team";
+    public static final String MEMBER = "member";
+    public static final String MEMBER_QUERY = "member-query";
+
+    // cacheRegion 힌트를 주지 않은 쿼리 캐시가 사용하는 영역
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    // Hibernate가 쿼리 캐시 무효화를 위해 테이블별 마지막 변경 시각을 저장하는 영역
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 변경 피드의 커밋 순번(MemberChangeSequencer가 JDBC로 읽고 쓴다.)
+ * member : 마지막으로 커밋한 순번, member_purged : 지운 삭제 기록(MemberTombstone)의 마지막 순번
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeClock {
+
+    @Id
+    private String name;
+
+    private long seq;
+}
@@ -39,6 +39,18 @@ public class Item implements Persistable<String> {
         return id;
     }
 
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * 영속성 컨텍스트를 거치지 않고 insert한 경우(ItemRepository.upsertAll) 등록시간을 채워서
+     * 이후 save()가 persist(중복 키)가 아니라 merge를 하도록 한다.
+     */
+    public void markInserted(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
     @Override
     public boolean isNew() {
         return createdDate == null;
@@ -1,33 +1,72 @@
 package study.datajpa.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.MEMBER)
 @Getter
 @Setter
 @NoArgsConstructor
 @ToString(of = {"id", "uesrname", "age"})
+@EntityListeners(MemberChangeListener.class)
+// 키셋 페이징(age = ? order by username desc, id desc)을 인덱스 순서대로 읽도록 정렬 방향까지 맞춘다.
+// last_modified_date : 목록 ETag의 max(lastModifiedDate), 변경 피드의 since 시각 조회
+// change_seq : 변경 피드의 (changeSeq, id) 키셋 조회, 커밋 직전 임시 순번 -> 커밋 순번 변경
+// username_age : username = ?(findByNames, findUser, findByUsernameAndAgeGreaterThan), team_id : 팀의 회원 조회/조인(IndexAdvisor 추천)
+@Table(indexes = {
+        @Index(name = "idx_member_age_username", columnList = "age, username desc, member_id desc"),
+        @Index(name = "idx_member_last_modified_date", columnList = "last_modified_date, member_id"),
+        @Index(name = "idx_member_change_seq", columnList = "change_seq, member_id"),
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_team_id", columnList = "team_id")})
 @NamedQuery( // 거의 사용하지 않는다. 보통 Repository 메소드에 쿼리를 정의하는 방법을 사용한다.
         name="Member.findByUsername",
         query="select m from Member m where m.username = :username"
 )
 public class Member extends BaseEntity{
+    /**
+     * allocationSize만큼 시퀀스를 미리 할당받아(pooled) 메모리에서 id를 채번한다.
+     * 대량 저장 시 row마다 시퀀스를 조회하지 않으므로 JDBC 배치와 함께 사용한다.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    /**
+     * 낙관적 락 : 수정할 때 where version = ?를 함께 확인하고 다른 트랜잭션이 먼저 수정했으면 OptimisticLockException
+     * 비관적 락(findLockByUsername)처럼 DB 락을 잡고 기다리지 않는다.(재시도는 OptimisticMemberUpdater)
+     * 벌크 연산은 update versioned로 버전을 함께 올린다.
+     */
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
 
+    /**
+     * 변경 피드의 커밋 순번(MemberChangeSequencer)
+     * 저장/수정하면 트랜잭션의 임시 순번(음수)이 들어가고 커밋 직전에 커밋 순서대로 증가하는 순번으로 바뀐다.
+     * 바뀐 순번은 JDBC로 저장하므로 엔티티(2차 캐시 포함)에는 임시 순번이 남아 있다.
+     */
+    @Column(name = "change_seq")
+    @Setter(AccessLevel.NONE)
+    private Long changeSeq;
+
     public Member(String username){
         this.username = username;
     }
@@ -45,6 +84,10 @@ public class Member extends BaseEntity{
         this.age = age;
     }
 
+    void markChanged(long pendingSeq) {
+        this.changeSeq = pendingSeq;
+    }
+
     public void changeTeam(Team team){
         this.team = team;
         team.getMembers().add(this);
@@ -0,0 +1,34 @@
+package study.datajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.MemberChangeSequencer;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Member를 저장/수정하면 change_seq에 트랜잭션의 임시 순번을 넣는다.(커밋 직전에 커밋 순번으로 바뀐다.)
+ * AuditListener처럼 EntityManagerFactory를 만드는 중에 생성되므로 MemberChangeSequencer는 처음 사용할 때 가져온다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberChangeListener {
+
+    private final ObjectProvider<MemberChangeSequencer> sequencerProvider;
+    private MemberChangeSequencer sequencer;
+
+    @PrePersist
+    @PreUpdate
+    public void markChanged(Member member) {
+        member.markChanged(sequencer().pending());
+    }
+
+    private MemberChangeSequencer sequencer() {
+        if (sequencer == null) {
+            sequencer = sequencerProvider.getObject();
+        }
+        return sequencer;
+    }
+}
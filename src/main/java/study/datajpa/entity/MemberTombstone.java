@@ -0,0 +1,43 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 삭제된 Member 기록(변경 피드 /members/changes에서 삭제를 알려주기 위해 사용)
+ * MemberTombstoneRecorder가 Member 삭제와 같은 트랜잭션에서 저장한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+// deleted_date : 목록 ETag의 max(deletedDate), 보관 기간이 지난 기록 삭제, change_seq : 변경 피드의 키셋 조회
+@Table(indexes = {
+        @Index(name = "idx_member_tombstone_deleted_date", columnList = "deleted_date, member_id"),
+        @Index(name = "idx_member_tombstone_change_seq", columnList = "change_seq, member_id")})
+public class MemberTombstone {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+
+    @Column(name = "deleted_date", nullable = false)
+    private LocalDateTime deletedDate;
+
+    // 변경 피드의 커밋 순번(MemberChangeSequencer)
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    public MemberTombstone(Long id, LocalDateTime deletedDate, Long changeSeq) {
+        this.id = id;
+        this.deletedDate = deletedDate;
+        this.changeSeq = changeSeq;
+    }
+}
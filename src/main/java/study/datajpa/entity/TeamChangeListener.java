@@ -0,0 +1,36 @@
+package study.datajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.MemberChangeSequencer;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+/**
+ * 팀 이름은 회원 목록(teamName)에 나오므로 Team을 변경한 트랜잭션도 커밋 순번을 받는다.
+ * 순번을 남길 행은 없고 change_clock만 증가해서 목록 ETag(MemberRepository.findMemberListVersion)가 바뀐다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamChangeListener {
+
+    private final ObjectProvider<MemberChangeSequencer> sequencerProvider;
+    private MemberChangeSequencer sequencer;
+
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    public void markChanged(Team team) {
+        sequencer().pending();
+    }
+
+    private MemberChangeSequencer sequencer() {
+        if (sequencer == null) {
+            sequencer = sequencerProvider.getObject();
+        }
+        return sequencer;
+    }
+}
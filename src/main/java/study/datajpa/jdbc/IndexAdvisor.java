@@ -0,0 +1,182 @@
+package study.datajpa.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.IndexAdviceDto;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 인덱스 추천(datajpa.index-advisor.enabled=true, H2 전용)
+ * SqlTelemetry에서 실행 시간 합계가 큰 select/update/delete부터 EXPLAIN을 실행해서 tableScan인 테이블에 인덱스를 추천한다.
+ * 추천 컬럼 순서는 등치(=, in) 조건 컬럼, 범위(>, <, between, like) 조건 컬럼 하나 순서이다.
+ *
+ * measure=true면 select에 한해 인덱스를 임시 이름으로 잠시 만들어 전후 실행 시간(중앙값)을 재고 만든 것만 다시 지운다.
+ * 측정하는 동안 DDL이 테이블 잠금을 잡으므로 개발/테스트 DB에서만 사용한다.
+ * 추천된 인덱스는 엔티티의 @Table(indexes)에 선언해서 ddl-auto가 만들도록 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.index-advisor.enabled", havingValue = "true")
+public class IndexAdvisor {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*\"?\\w+\"?\\.\"?(\\w+)\"?\\.tableScan\\b");
+    private static final String EQUALITY = "=|\\bIN\\b";
+    // 측정용 임시 인덱스 이름
+    private static final String TEMPORARY_PREFIX = "tmp_index_advisor_";
+    private static final String RANGE = ">=|<=|>|<(?!>)|\\bBETWEEN\\b|\\bLIKE\\b";
+
+    private final SqlTelemetry sqlTelemetry;
+    private final JdbcTemplate jdbcTemplate;
+    private final int measureRuns;
+
+    public IndexAdvisor(SqlTelemetry sqlTelemetry, DataSource dataSource,
+                        @Value("${datajpa.index-advisor.measure-runs:11}") int measureRuns) {
+        this.sqlTelemetry = sqlTelemetry;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.measureRuns = measureRuns;
+    }
+
+    /**
+     * 실행 시간 합계가 큰 top개 문장의 EXPLAIN 결과와 추천 인덱스
+     * EXPLAIN, 측정 쿼리는 SqlTelemetry에 모으지 않는다.
+     */
+    public List<IndexAdviceDto> analyze(int top, boolean measure) {
+        List<SqlTelemetry.Sample> hottest = sqlTelemetry.topSamples(Integer.MAX_VALUE).stream()
+                .filter(sample -> sample.stats.getType() == QueryType.SELECT
+                        || sample.stats.getType() == QueryType.UPDATE
+                        || sample.stats.getType() == QueryType.DELETE)
+                .limit(top)
+                .collect(Collectors.toList());
+        return SqlTelemetry.untracked(() -> {
+            List<IndexAdviceDto> result = new ArrayList<>();
+            for (SqlTelemetry.Sample sample : hottest) {
+                result.add(advise(sample, measure));
+            }
+            return result;
+        });
+    }
+
+    private IndexAdviceDto advise(SqlTelemetry.Sample sample, boolean measure) {
+        String fingerprint = sample.stats.getFingerprint();
+        long count = sample.stats.getCount();
+        long totalMicros = sample.stats.getTotalMicros();
+        String sql = sample.sqlWithValues;
+        String plan;
+        try {
+            plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        } catch (DataAccessException e) {
+            // p6spy가 채운 값(날짜 형식 등)을 H2가 해석하지 못하는 경우
+            log.debug("explain failed : {}", sql, e);
+            return new IndexAdviceDto(fingerprint, count, totalMicros, "explain failed : " + e.getMostSpecificCause().getMessage(),
+                    List.of(), null, null, null);
+        }
+
+        List<String> scannedTables = new ArrayList<>();
+        // (테이블, 추천 컬럼)
+        List<Map.Entry<String, List<String>>> indexes = new ArrayList<>();
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            String table = scan.group(1).toLowerCase(Locale.ROOT);
+            scannedTables.add(table);
+            List<String> columns = indexColumns(plan, alias(plan, scan.start(), scan.group(1)));
+            if (!columns.isEmpty()) {
+                indexes.add(Map.entry(table, columns));
+            }
+        }
+        List<String> ddl = indexes.stream()
+                .map(index -> createIndex(indexName(index.getKey(), index.getValue()), index.getKey(), index.getValue()))
+                .collect(Collectors.toList());
+
+        Long beforeMicros = null;
+        Long afterMicros = null;
+        if (measure && !indexes.isEmpty() && sample.stats.getType() == QueryType.SELECT) {
+            beforeMicros = medianMicros(sql);
+            // 추천 이름은 스키마에 이미 있는 인덱스와 같을 수 있으므로 측정용 인덱스는 임시 이름으로 만들고
+            // 실제로 만든 것만 지운다.
+            List<String> created = new ArrayList<>();
+            try {
+                for (Map.Entry<String, List<String>> index : indexes) {
+                    String name = TEMPORARY_PREFIX + UUID.randomUUID().toString().replace("-", "");
+                    jdbcTemplate.execute(createIndex(name, index.getKey(), index.getValue()));
+                    created.add(name);
+                }
+                afterMicros = medianMicros(sql);
+            } finally {
+                created.forEach(name -> jdbcTemplate.execute("drop index if exists " + name));
+            }
+        }
+        return new IndexAdviceDto(fingerprint, count, totalMicros, plan, scannedTables,
+                ddl.isEmpty() ? null : String.join(";\n", ddl), beforeMicros, afterMicros);
+    }
+
+    // EXPLAIN의 FROM "PUBLIC"."MEMBER" "MEMBER0_" (tableScan 주석) 에서 별칭(MEMBER0_)을 찾는다.
+    // 별칭이 없으면 테이블 이름으로 컬럼을 구분한다.
+    private String alias(String plan, int scanStart, String table) {
+        String before = plan.substring(0, scanStart).trim();
+        String[] tokens = before.split("\\s+");
+        String last = tokens[tokens.length - 1];
+        if (last.endsWith("\"" + table + "\"") || last.endsWith("." + table) || last.equalsIgnoreCase(table)) {
+            return table;
+        }
+        return last.replace("\"", "");
+    }
+
+    private List<String> indexColumns(String plan, String alias) {
+        String column = "\"?" + Pattern.quote(alias) + "\"?\\.\"?(\\w+)\"?";
+        Set<String> equality = new LinkedHashSet<>();
+        collect(Pattern.compile(column + "\\s*(?:" + EQUALITY + ")", Pattern.CASE_INSENSITIVE), plan, equality);
+        // 조인 조건 B.X = A.Y
+        collect(Pattern.compile("(?<![<>!])=\\s*" + column, Pattern.CASE_INSENSITIVE), plan, equality);
+
+        Set<String> range = new LinkedHashSet<>();
+        collect(Pattern.compile(column + "\\s*(?:" + RANGE + ")", Pattern.CASE_INSENSITIVE), plan, range);
+        range.removeAll(equality);
+
+        List<String> columns = new ArrayList<>(equality);
+        range.stream().findFirst().ifPresent(columns::add);
+        return columns;
+    }
+
+    private void collect(Pattern pattern, String plan, Set<String> columns) {
+        Matcher matcher = pattern.matcher(plan);
+        while (matcher.find()) {
+            columns.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private String indexName(String table, List<String> columns) {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+
+    private String createIndex(String name, String table, List<String> columns) {
+        return "create index " + name + " on " + table + " (" + String.join(", ", columns) + ")";
+    }
+
+    private long medianMicros(String sql) {
+        long[] elapsed = new long[measureRuns];
+        for (int i = 0; i < measureRuns; i++) {
+            long start = System.nanoTime();
+            jdbcTemplate.query(sql, rs -> {
+            });
+            elapsed[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(elapsed);
+        return elapsed[measureRuns / 2];
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.jdbc;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 한 스레드(요청) 또는 한 트랜잭션에서 실행한 SQL 수
+ * 같은 SQL이 반복 실행된 횟수도 기록하여 N+1을 찾는 데 사용한다.
+ * 요청의 카운트는 비동기 작업(queryExecutor 스레드)에서도 기록하므로 동기화한다.(경합이 거의 없다.)
+ */
+public class QueryCount {
+
+    // 서로 다른 SQL이 끝없이 늘어나도(IN 절 크기 등) 메모리를 제한한다.
+    private static final int MAX_STATEMENTS = 500;
+
+    private final Map<QueryType, Integer> counts = new EnumMap<>(QueryType.class);
+    private final Map<String, Integer> statements = new HashMap<>();
+
+    synchronized void record(QueryType type, String sql) {
+        counts.merge(type, 1, Integer::sum);
+        if (sql != null && (statements.size() < MAX_STATEMENTS || statements.containsKey(sql))) {
+            statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public synchronized int get(QueryType type) {
+        return counts.getOrDefault(type, 0);
+    }
+
+    public int getSelect() {
+        return get(QueryType.SELECT);
+    }
+
+    public int getInsert() {
+        return get(QueryType.INSERT);
+    }
+
+    public int getUpdate() {
+        return get(QueryType.UPDATE);
+    }
+
+    public int getDelete() {
+        return get(QueryType.DELETE);
+    }
+
+    public synchronized int getTotal() {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    // SQL별 실행 횟수(같은 PreparedStatement SQL은 파라미터가 달라도 같은 SQL)
+    public synchronized Map<String, Integer> getStatements() {
+        return Collections.unmodifiableMap(new HashMap<>(statements));
+    }
+
+    public synchronized void clear() {
+        counts.clear();
+        statements.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "QueryCount" + counts;
+    }
+}
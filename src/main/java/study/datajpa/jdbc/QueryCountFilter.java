@@ -0,0 +1,66 @@
+package study.datajpa.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * HTTP 요청마다 SQL 수를 세고 같은 SQL이 repeat-threshold번 이상 실행되면 N+1 의심으로 경고한다.
+ * 요청 스레드와 요청이 넣은 비동기 작업(queryExecutor)에서 실행된 SQL을 센다.
+ * 비동기 요청(CompletableFuture 반환)은 결과를 쓰는 재디스패치가 끝날 때 확인한다.
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final String COUNT_ATTRIBUTE = QueryCountFilter.class.getName() + ".count";
+
+    private final int repeatThreshold;
+
+    public QueryCountFilter(@Value("${datajpa.query-count.repeat-threshold:10}") int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 비동기 요청의 재디스패치는 처음 디스패치의 카운트를 이어서 사용한다.
+        QueryCount count = (QueryCount) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            count = new QueryCount();
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        }
+        QueryCountHolder.bind(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCountHolder.remove();
+            if (!isAsyncStarted(request)) {
+                report(request, count);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void report(HttpServletRequest request, QueryCount count) {
+        for (Map.Entry<String, Integer> statement : count.getStatements().entrySet()) {
+            if (statement.getValue() >= repeatThreshold) {
+                log.warn("N+1 suspected: {} {} executed {} times : {}",
+                        request.getMethod(), request.getRequestURI(), statement.getValue(), statement.getKey());
+            }
+        }
+        log.debug("{} {} : {}", request.getMethod(), request.getRequestURI(), count);
+    }
+}
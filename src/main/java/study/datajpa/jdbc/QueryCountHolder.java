@@ -0,0 +1,70 @@
+package study.datajpa.jdbc;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 스레드와 현재 트랜잭션의 QueryCount
+ * 스레드 단위 카운트는 clear()를 호출한 시점부터 누적된다.
+ * HTTP 요청은 QueryCountFilter가 요청마다 새 카운트를 붙이고, 비동기 작업(AsyncConfig의 TaskDecorator)은
+ * 작업을 넣은 스레드의 카운트를 이어서 사용한다.(작업이 끝나면 풀 스레드에서 떼어낸다.)
+ */
+public final class QueryCountHolder {
+
+    private static final ThreadLocal<QueryCount> THREAD_COUNT = new ThreadLocal<>();
+
+    // 트랜잭션 리소스 키
+    static final Object TRANSACTION_KEY = new Object();
+
+    private QueryCountHolder() {
+    }
+
+    public static QueryCount get() {
+        QueryCount count = THREAD_COUNT.get();
+        if (count == null) {
+            count = new QueryCount();
+            THREAD_COUNT.set(count);
+        }
+        return count;
+    }
+
+    /**
+     * 트랜잭션 밖이거나 아직 SQL을 실행하지 않았으면 null
+     */
+    public static QueryCount currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        return (QueryCount) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+    }
+
+    public static void clear() {
+        get().clear();
+    }
+
+    /**
+     * 현재 스레드에 카운트를 붙인다. 끝나면 remove()
+     */
+    public static void bind(QueryCount count) {
+        THREAD_COUNT.set(count);
+    }
+
+    public static void remove() {
+        THREAD_COUNT.remove();
+    }
+
+    /**
+     * 작업을 넣은 스레드의 카운트를 실행 스레드에서 이어서 센다.(TaskDecorator)
+     * 카운트가 없는 스레드(MemberBatchLoader 타이머 등)가 넣은 작업은 작업마다 새 카운트를 사용하고 버린다.
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryCount caller = THREAD_COUNT.get();
+        return () -> {
+            bind(caller != null ? caller : new QueryCount());
+            try {
+                task.run();
+            } finally {
+                remove();
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.jdbc;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 감싼 JDBC 실행마다 호출되어 스레드, 트랜잭션 단위로 SQL 수를 센다.
+ * p6spy-spring-boot-starter는 JdbcEventListener 빈을 자동으로 등록한다.
+ * 배치(executeBatch)는 한 번의 실행으로 센다.
+ */
+@Slf4j
+@Component
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        QueryType type = QueryType.of(sql);
+        QueryCountHolder.get().record(type, sql);
+
+        QueryCount transactionCount = transactionCount();
+        if (transactionCount != null) {
+            transactionCount.record(type, sql);
+        }
+    }
+
+    private QueryCount transactionCount() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        QueryCount count = (QueryCount) TransactionSynchronizationManager.getResource(QueryCountHolder.TRANSACTION_KEY);
+        if (count == null) {
+            count = new QueryCount();
+            TransactionSynchronizationManager.bindResource(QueryCountHolder.TRANSACTION_KEY, count);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionCountSynchronization(count));
+        }
+        return count;
+    }
+
+    /**
+     * REQUIRES_NEW로 트랜잭션이 중첩되면 바깥 트랜잭션의 카운트를 잠시 내려놓는다.
+     */
+    private static class TransactionCountSynchronization implements TransactionSynchronization {
+
+        private final QueryCount count;
+
+        TransactionCountSynchronization(QueryCount count) {
+            this.count = count;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(QueryCountHolder.TRANSACTION_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(QueryCountHolder.TRANSACTION_KEY, count);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(QueryCountHolder.TRANSACTION_KEY);
+            log.debug("transaction {} : {}", status == STATUS_COMMITTED ? "committed" : "completed", count);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.jdbc;
+
+public enum QueryType {
+    SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+    /**
+     * SQL의 첫 키워드로 종류를 판단한다.(앞의 공백, 주석은 건너뛴다.)
+     */
+    public static QueryType of(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        if (startsWith(sql, i, "select") || startsWith(sql, i, "with")) {
+            return SELECT;
+        }
+        if (startsWith(sql, i, "insert") || startsWith(sql, i, "merge")) {
+            return INSERT;
+        }
+        if (startsWith(sql, i, "update")) {
+            return UPDATE;
+        }
+        if (startsWith(sql, i, "delete")) {
+            return DELETE;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWith(String sql, int offset, String keyword) {
+        return sql.regionMatches(true, offset, keyword, 0, keyword.length());
+    }
+}
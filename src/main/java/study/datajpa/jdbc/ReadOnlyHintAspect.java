@@ -0,0 +1,43 @@
+package study.datajpa.jdbc;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.QueryHint;
+
+/**
+ * org.hibernate.readOnly 힌트가 붙은 쿼리 메소드는 replica로 보낸다.
+ * 쓰기 트랜잭션 안에서 호출되면 이미 primary 커넥션을 사용 중이므로 그대로 primary에서 읽는다.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "datajpa.datasource.routing.enabled", havingValue = "true")
+public class ReadOnlyHintAspect {
+
+    @Around("execution(* study.datajpa.repository..*(..)) && @annotation(queryHints)")
+    public Object route(ProceedingJoinPoint joinPoint,
+                        org.springframework.data.jpa.repository.QueryHints queryHints) throws Throwable {
+        if (!isReadOnly(queryHints)) {
+            return joinPoint.proceed();
+        }
+        ReplicaRouter.enterReadOnlyHint();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRouter.exitReadOnlyHint();
+        }
+    }
+
+    private boolean isReadOnly(org.springframework.data.jpa.repository.QueryHints queryHints) {
+        for (QueryHint hint : queryHints.value()) {
+            if (QueryHints.READ_ONLY.equals(hint.name()) && Boolean.parseBoolean(hint.value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.jdbc;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 커넥션마다 ReplicaRouter가 정한 DataSource를 사용한다.
+ * 트랜잭션 시작 시점에는 아직 읽기 전용 여부가 설정되지 않으므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRouter router;
+
+    public ReadWriteRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+        setTargetDataSources(router.targetDataSources());
+        setDefaultTargetDataSource(router.primaryDataSource());
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentRoute();
+    }
+}
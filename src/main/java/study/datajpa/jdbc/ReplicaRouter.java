@@ -0,0 +1,189 @@
+package study.datajpa.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.DataSourceRouteStatsDto;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 커넥션을 가져올 때 primary와 replica 중 어디로 보낼지 정한다.
+ * - 읽기 전용 트랜잭션, readOnly 힌트가 붙은 쿼리 메소드(ReadOnlyHintAspect) : 정상 replica 중 라운드로빈
+ * - 그 외 : primary
+ *
+ * replica는 probe-interval-ms마다 복제 지연을 확인하고 max-lag-ms를 넘거나 연결에 실패하면 제외한다.
+ * 정상 replica가 없으면 primary로 보낸다.(fallback)
+ *
+ * 스프링 부트의 Hibernate는 커넥션을 세션이 닫힐 때까지 잡고 있으므로(DELAYED_ACQUISITION_AND_HOLD)
+ * OSIV(spring.jpa.open-in-view)를 끈다. 켜 두면 트랜잭션 밖 readOnly 힌트 조회로 가져온 replica 커넥션이
+ * 요청의 EntityManager에 남아 이후 쓰기 트랜잭션이 replica에 쓴다.
+ */
+@Slf4j
+public class ReplicaRouter implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Integer> READ_ONLY_HINT = ThreadLocal.withInitial(() -> 0);
+
+    private final Route primary;
+    private final List<Route> replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService prober;
+
+    private volatile List<Route> healthyReplicas = Collections.emptyList();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicas,
+                         String lagQuery, long maxLagMillis, long probeIntervalMillis) {
+        this.primary = new Route(PRIMARY, primary);
+        this.replicas = new ArrayList<>();
+        for (HikariDataSource replica : replicas) {
+            this.replicas.add(new Route(replica.getPoolName(), replica));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+
+        probe();
+        prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 메소드 실행 동안 트랜잭션이 없거나 읽기 전용이면 replica를 사용한다.
+     */
+    public static void enterReadOnlyHint() {
+        READ_ONLY_HINT.set(READ_ONLY_HINT.get() + 1);
+    }
+
+    public static void exitReadOnlyHint() {
+        int depth = READ_ONLY_HINT.get() - 1;
+        if (depth == 0) {
+            READ_ONLY_HINT.remove();
+        } else {
+            READ_ONLY_HINT.set(depth);
+        }
+    }
+
+    public String currentRoute() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || (READ_ONLY_HINT.get() > 0 && !TransactionSynchronizationManager.isActualTransactionActive());
+        if (!readOnly || replicas.isEmpty()) {
+            primary.routed.increment();
+            return PRIMARY;
+        }
+        List<Route> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            fallbacks.increment();
+            primary.routed.increment();
+            return PRIMARY;
+        }
+        Route route = healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+        route.routed.increment();
+        return route.name;
+    }
+
+    public Map<Object, Object> targetDataSources() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary.dataSource);
+        for (Route replica : replicas) {
+            targets.put(replica.name, replica.dataSource);
+        }
+        return targets;
+    }
+
+    public DataSource primaryDataSource() {
+        return primary.dataSource;
+    }
+
+    public synchronized void probe() {
+        List<Route> healthy = new ArrayList<>();
+        for (Route replica : replicas) {
+            replica.lagMillis = lagMillis(replica);
+            if (replica.lagMillis >= 0 && replica.lagMillis <= maxLagMillis) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.size() != healthyReplicas.size()) {
+            log.info("healthy replicas {}/{}", healthy.size(), replicas.size());
+        }
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    public List<DataSourceRouteStatsDto> stats() {
+        List<Route> healthy = healthyReplicas;
+        List<DataSourceRouteStatsDto> result = new ArrayList<>();
+        result.add(primary.stats(true, fallbacks.sum()));
+        for (Route replica : replicas) {
+            result.add(replica.stats(healthy.contains(replica), 0));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        for (Route replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.dataSource.close();
+    }
+
+    // 실패하면 -1
+    private long lagMillis(Route replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(1) ? 0 : -1;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                return resultSet.next() ? Math.max(0, resultSet.getLong(1)) : 0;
+            }
+        } catch (SQLException e) {
+            log.warn("replica {} probe failed: {}", replica.name, e.getMessage());
+            return -1;
+        }
+    }
+
+    private static class Route {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final LongAdder routed = new LongAdder();
+        private volatile long lagMillis;
+
+        private Route(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private DataSourceRouteStatsDto stats(boolean healthy, long fallbackCount) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return new DataSourceRouteStatsDto(name, healthy, lagMillis, routed.sum(), fallbackCount,
+                    pool == null ? 0 : pool.getActiveConnections(),
+                    pool == null ? 0 : pool.getIdleConnections(),
+                    pool == null ? 0 : pool.getTotalConnections(),
+                    pool == null ? 0 : pool.getThreadsAwaitingConnection());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL을 파라미터 값과 관계없이 같은 문장끼리 묶을 수 있도록 정규화한다.
+ * 문자열/숫자 리터럴은 ?, 공백은 하나로, 주석은 제거하고 in (?, ?, ...) 목록은 길이와 관계없이 in (?...)로 바꾼다.
+ */
+public final class SqlFingerprints {
+
+    private static final Pattern IN_LIST = Pattern.compile("\\bin \\(\\?(?: ?, ?\\?)*\\)");
+
+    private SqlFingerprints() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipString(sql, i);
+                out.append('?');
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? length : end;
+            } else if (Character.isWhitespace(c)) {
+                if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                    out.append(' ');
+                }
+                i++;
+            } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+                i = skipNumber(sql, i);
+                out.append('?');
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ' ' || out.charAt(end - 1) == ';')) {
+            end--;
+        }
+        out.setLength(end);
+        return IN_LIST.matcher(out).replaceAll("in (?...)");
+    }
+
+    // '' 는 따옴표 문자이다.
+    private static int skipString(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    // member0_ 처럼 식별자 안의 숫자는 리터럴이 아니다.
+    private static boolean isIdentifierPart(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char prev = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '"' || prev == '$';
+    }
+}
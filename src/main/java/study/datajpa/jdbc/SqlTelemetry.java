@@ -0,0 +1,213 @@
+package study.datajpa.jdbc;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.SqlStatementStatsDto;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * SQL 문장(SqlFingerprints)별 실행 수, 에러 수, 실행 시간(합계/최대), row 수를 모은다.
+ * select의 row 수는 ResultSet을 닫을 때 읽은 row 수, insert/update/delete는 update count이다.
+ *
+ * 정규화는 처음 보는 SQL 문자열에서만 한다. Hibernate는 같은 문장에 같은 SQL 문자열(? 파라미터)을 쓰므로
+ * 실행마다 하는 일은 SQL 문자열로 맵을 한 번 찾고 LongAdder를 올리는 것뿐이다.(락 없음, 로그 없음)
+ * 문장 수는 max-fingerprints개로 제한하고 넘치는 문장은 하나의 other 항목에 합쳐서 센다.
+ * 개수는 computeIfAbsent 안에서 AtomicInteger로 세므로 동시에 처음 보는 문장이 들어와도 제한을 넘지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.sql-telemetry.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTelemetry extends SimpleJdbcEventListener {
+
+    // max-fingerprints를 넘은 문장을 합쳐서 세는 항목의 fingerprint
+    public static final String OTHER = "other";
+
+    // IndexAdvisor의 EXPLAIN, 측정 쿼리는 모으지 않는다.
+    private static final ThreadLocal<Boolean> UNTRACKED = ThreadLocal.withInitial(() -> false);
+
+    // SQL 문자열 -> 문장 통계(fingerprint가 같은 SQL 문자열은 같은 통계를 가리킨다.)
+    private final ConcurrentMap<String, StatementStats> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StatementStats> byFingerprint = new ConcurrentHashMap<>();
+    private final AtomicInteger sqlCount = new AtomicInteger();
+    private final AtomicInteger fingerprintCount = new AtomicInteger();
+    private final int maxFingerprints;
+    private final int maxSqls;
+
+    public SqlTelemetry(@Value("${datajpa.sql-telemetry.max-fingerprints:1000}") int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+        // in 목록 길이마다 SQL 문자열이 달라지므로 문자열 맵도 제한한다.(넘치면 매번 정규화)
+        this.maxSqls = maxFingerprints * 4;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        StatementStats statement = statement(statementInformation);
+        if (statement == null) {
+            return;
+        }
+        statement.count.increment();
+        statement.nanos.add(timeElapsedNanos);
+        statement.maxNanos.accumulate(timeElapsedNanos);
+        if (e != null) {
+            statement.errors.increment();
+        }
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                     int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                                     int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos,
+                                    int[] updateCounts, SQLException e) {
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+        if (updateCounts != null) {
+            long rows = 0;
+            for (int updateCount : updateCounts) {
+                rows += Math.max(updateCount, 0); // SUCCESS_NO_INFO(-2)는 세지 않는다.
+            }
+            addRows(statementInformation, rows);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+        addRows(resultSetInformation.getStatementInformation(), resultSetInformation.getCurrRow() + 1);
+    }
+
+    /**
+     * 실행 시간 합계가 큰 순서로 top개
+     */
+    public List<SqlStatementStatsDto> top(int top) {
+        return byFingerprint.values().stream()
+                .sorted(Comparator.comparingLong((StatementStats statement) -> statement.nanos.sum()).reversed())
+                .limit(top)
+                .map(StatementStats::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 실행 시간 합계가 큰 순서로 top개 문장의 fingerprint와 값이 채워진 SQL(처음 실행된 것)
+     */
+    List<Sample> topSamples(int top) {
+        return byFingerprint.values().stream()
+                .sorted(Comparator.comparingLong((StatementStats statement) -> statement.nanos.sum()).reversed())
+                .limit(top)
+                .map(statement -> new Sample(statement.toDto(), statement.sqlWithValues))
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        bySql.clear();
+        sqlCount.set(0);
+        byFingerprint.clear();
+        fingerprintCount.set(0);
+    }
+
+    static <T> T untracked(Supplier<T> action) {
+        UNTRACKED.set(true);
+        try {
+            return action.get();
+        } finally {
+            UNTRACKED.remove();
+        }
+    }
+
+    private void addRows(StatementInformation statementInformation, long rows) {
+        if (rows <= 0) {
+            return;
+        }
+        StatementStats statement = statement(statementInformation);
+        if (statement != null) {
+            statement.rows.add(rows);
+        }
+    }
+
+    private StatementStats statement(StatementInformation statementInformation) {
+        String sql = statementInformation.getSql();
+        if (sql == null || UNTRACKED.get()) {
+            return null;
+        }
+        StatementStats statement = bySql.get(sql);
+        if (statement != null) {
+            return statement;
+        }
+
+        // 처음 보는 SQL 문자열
+        String fingerprint = SqlFingerprints.of(sql);
+        StatementStats found = byFingerprint.computeIfAbsent(fingerprint, key -> reserve(fingerprintCount, maxFingerprints)
+                ? new StatementStats(key, QueryType.of(sql), statementInformation.getSqlWithValues())
+                : null);
+        StatementStats target = found != null ? found
+                : byFingerprint.computeIfAbsent(OTHER, key -> new StatementStats(key, QueryType.OTHER, null));
+        bySql.computeIfAbsent(sql, key -> reserve(sqlCount, maxSqls) ? target : null);
+        return target;
+    }
+
+    // computeIfAbsent의 매핑 함수 안에서 호출한다.(키마다 한 번) 제한을 넘으면 되돌리고 false
+    private static boolean reserve(AtomicInteger count, int max) {
+        if (count.incrementAndGet() <= max) {
+            return true;
+        }
+        count.decrementAndGet();
+        return false;
+    }
+
+    private static class StatementStats {
+        private final String fingerprint;
+        private final QueryType type;
+        private final String sqlWithValues;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        private StatementStats(String fingerprint, QueryType type, String sqlWithValues) {
+            this.fingerprint = fingerprint;
+            this.type = type;
+            this.sqlWithValues = sqlWithValues;
+        }
+
+        private SqlStatementStatsDto toDto() {
+            long count = this.count.sum();
+            long totalMicros = nanos.sum() / 1000;
+            return new SqlStatementStatsDto(fingerprint, type, count, errors.sum(), totalMicros,
+                    count == 0 ? 0 : totalMicros / count, maxNanos.get() / 1000, rows.sum());
+        }
+    }
+
+    static class Sample {
+        final SqlStatementStatsDto stats;
+        final String sqlWithValues;
+
+        private Sample(SqlStatementStatsDto stats, String sqlWithValues) {
+            this.stats = stats;
+            this.sqlWithValues = sqlWithValues;
+        }
+    }
+}
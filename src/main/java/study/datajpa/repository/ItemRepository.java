@@ -5,6 +5,6 @@ import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Item;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, String>, ItemRepositoryCustom {
 
 }
@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+import study.datajpa.repository.support.UpsertResult;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+
+    // 외부 id 기준으로 없으면 insert, 있으면 그대로 둔다.(영속성 컨텍스트, merge를 거치지 않는 JDBC 배치)
+    UpsertResult upsertAll(Collection<Item> items);
+
+}
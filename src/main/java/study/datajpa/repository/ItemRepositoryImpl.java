@@ -0,0 +1,75 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.audit.AuditContextHolder;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.support.UpsertResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * H2 MERGE USING : id가 없을 때만 insert한다.
+     * 갱신할 컬럼이 없고 createdDate는 바뀌면 안 되므로 WHEN MATCHED는 두지 않는다.
+     * 행마다 update count가 1이면 insert, 0이면 이미 있던 행이다.
+     */
+    private static final String UPSERT = "merge into item t" +
+            " using (select cast(? as varchar(255)) id, cast(? as timestamp) created_date) s" +
+            " on (t.id = s.id)" +
+            " when not matched then insert (id, created_date) values (s.id, s.created_date)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditContextHolder auditContextHolder;
+
+    /**
+     * save()는 id가 있는 Item을 merge(select + insert)하므로 대량 적재에는 쓰지 않는다.
+     * 새로 insert한 Item 객체에는 createdDate를 채운다.(isNew() == false)
+     * 이미 있던 행의 Item 객체는 실제 등록시간을 모르므로 그대로 둔다.
+     * 입력에 같은 id가 여러 번 있으면 두 번째부터는 existingCount로 센다.
+     */
+    @Override
+    @Transactional
+    public UpsertResult upsertAll(Collection<Item> items) {
+        LocalDateTime now = auditContextHolder.current().getNow();
+        Timestamp createdDate = Timestamp.valueOf(now);
+        List<Item> batch = new ArrayList<>(Math.min(items.size(), BATCH_SIZE));
+        long inserted = 0;
+        for (Item item : items) {
+            batch.add(item);
+            if (batch.size() == BATCH_SIZE) {
+                inserted += executeBatch(batch, createdDate, now);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += executeBatch(batch, createdDate, now);
+        }
+        return new UpsertResult(inserted, items.size() - inserted);
+    }
+
+    private int executeBatch(List<Item> batch, Timestamp createdDate, LocalDateTime now) {
+        List<Object[]> batchArgs = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            batchArgs.add(new Object[]{item.getId(), createdDate});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT, batchArgs);
+        int inserted = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                batch.get(i).markInserted(now);
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+}
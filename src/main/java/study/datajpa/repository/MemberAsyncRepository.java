@@ -0,0 +1,68 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Repository;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.dto.ChangeFeed;
+import study.datajpa.dto.ChangePosition;
+import study.datajpa.dto.MemberDetailDto;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.ResourceVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MemberRepository 조회를 queryExecutor 스레드에서 실행한다.
+ * 요청 스레드(Tomcat)는 JDBC 응답을 기다리지 않고 바로 반환된다.
+ * 다른 스레드에서 실행되므로 OSIV 영속성 컨텍스트를 사용할 수 없다.(DTO나 지연 로딩이 필요 없는 값만 돌려준다.)
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberAsyncRepository {
+
+    private final MemberRepository memberRepository;
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<Optional<LocalDateTime>> findLastModifiedDateById(long id) {
+        return CompletableFuture.completedFuture(memberRepository.findLastModifiedDateById(id));
+    }
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<ResourceVersion> findMemberListVersion() {
+        return CompletableFuture.completedFuture(memberRepository.findMemberListVersion());
+    }
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<Page<MemberDto>> findMemberDtoPage(Pageable pageable) {
+        return CompletableFuture.completedFuture(memberRepository.findMemberDtoPage(pageable));
+    }
+
+    // 요청한 연관관계는 모두 로딩된 상태이므로 트랜잭션 밖에서 DTO로 바꾼다.
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<Page<MemberDetailDto>> findMemberDetailPage(Pageable pageable, Set<String> expand) {
+        return CompletableFuture.completedFuture(memberRepository.findAllExpanded(pageable, expand)
+                .map(member -> new MemberDetailDto(member, expand)));
+    }
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<List<MemberDto>> findMemberDtoAfter(long lastId, Pageable pageable) {
+        return CompletableFuture.completedFuture(memberRepository.findMemberDtoAfter(lastId, pageable));
+    }
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<ChangeFeed> findChangesAfter(ChangePosition after, int size) {
+        return CompletableFuture.completedFuture(memberRepository.findChangesAfter(after, size));
+    }
+
+    @Async(AsyncConfig.QUERY_EXECUTOR)
+    public CompletableFuture<ChangeFeed> findChangesSince(LocalDateTime since, int size) {
+        return CompletableFuture.completedFuture(memberRepository.findChangesSince(since, size));
+    }
+}
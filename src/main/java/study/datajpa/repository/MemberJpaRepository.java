@@ -1,32 +1,89 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.audit.AuditContextHolder;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.CacheRegions;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BatchSaver;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.ChunkedUpdateResult;
+import study.datajpa.repository.support.CountCache;
+import study.datajpa.repository.support.MemberBulkUpdateEvent;
+import study.datajpa.repository.support.MemberChangeSequencer;
+import study.datajpa.repository.support.MemberChunkedUpdater;
+import study.datajpa.repository.support.WarmupQuerySource;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
+@RequiredArgsConstructor
 // 순수 JPA
-public class MemberJpaRepository {
+public class MemberJpaRepository implements WarmupQuerySource {
+
+    private static final String FIND_ALL = "select m from Member m";
+    private static final String COUNT = "select count(m) from Member m";
+    private static final String FIND_BY_NAME_AND_AGE_GREATER_THAN = "select m from Member m where m.username = :username " +
+            "and m.age > :age";
+    private static final String FIND_BY_PAGE = "select m from Member m where m.age = :age order by m.username desc";
+    private static final String FIND_BY_AGE_FIRST = "select m from Member m where m.age = :age" +
+            " order by m.username desc, m.id desc";
+    private static final String FIND_BY_AGE_AFTER = "select m from Member m where m.age = :age" +
+            " and (m.username < :username or (m.username = :username and m.id < :id))" +
+            " order by m.username desc, m.id desc";
+    private static final String MEMBER_DTO_SCROLL = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+            " from Member m left join m.team t order by m.id";
+    private static final String COUNT_BY_AGE = "select count(m) from Member m where m.age = :age";
+    // 벌크 연산은 엔티티 리스너를 거치지 않으므로 수정 시각(ETag), 변경 피드의 임시 순번을 직접 넣는다.
+    private static final String AGE_PLUS = "update versioned Member m set m.age = m.age + 1," +
+            " m.lastModifiedDate = :now, m.changeSeq = :pendingSeq where m.age >= :age";
 
     @PersistenceContext
     private EntityManager em;
 
+    private final CountCache countCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MemberChunkedUpdater chunkedUpdater;
+    private final AuditContextHolder auditContextHolder;
+    private final BatchSaver batchSaver;
+    private final MemberChangeSequencer changeSequencer;
+
+    @Override
+    public List<String> warmupQueries() {
+        return List.of(FIND_ALL, COUNT, FIND_BY_NAME_AND_AGE_GREATER_THAN, FIND_BY_PAGE,
+                FIND_BY_AGE_FIRST, FIND_BY_AGE_AFTER, MEMBER_DTO_SCROLL, COUNT_BY_AGE, AGE_PLUS);
+    }
+
     public Member save(Member member){
         em.persist(member);
         return member;
     }
 
+    /**
+     * 대량 저장(BatchSaver)
+     * clear() 이후 저장한 엔티티는 준영속 상태가 된다.
+     */
+    public int saveAllBatched(Iterable<Member> members, int chunkSize) {
+        return batchSaver.saveAll(members, chunkSize);
+    }
+
     public void delete(Member member){
         em.remove(member);
     }
 
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return em.createQuery(FIND_ALL, Member.class)
                 .getResultList();
     }
 
@@ -36,7 +93,7 @@ public class MemberJpaRepository {
     }
 
     public Long count() {
-        return em.createQuery("select count(m) from Member m", Long.class)
+        return em.createQuery(COUNT, Long.class)
                 .getSingleResult();
     }
 
@@ -45,8 +102,7 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByNameAndAgeGreaterThen(String username, int age) {
-        return em.createQuery("select m from Member m where m.username = :username " +
-                "and m.age > :age", Member.class)
+        return em.createQuery(FIND_BY_NAME_AND_AGE_GREATER_THAN, Member.class)
                 .setParameter("username", username)
                 .setParameter("age", age)
                 .getResultList();
@@ -55,30 +111,91 @@ public class MemberJpaRepository {
     public List<Member> findByUsername(String username){
         return em.createNamedQuery("Member.findByUsername", Member.class)
                 .setParameter("username", username)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, CacheRegions.MEMBER_QUERY)
                 .getResultList();
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("select m from Member m where m.age = :age order by m.username desc")
+        return em.createQuery(FIND_BY_PAGE)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
-    public long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+    /**
+     * 키셋(seek) 페이징
+     * offset은 앞의 row를 모두 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+     * 이전 페이지의 마지막 (username, id) 이후부터 읽으면 몇 번째 페이지든 인덱스에서 limit만큼만 읽는다.
+     * lastUsername, lastId가 null이면 첫 페이지를 조회한다.
+     */
+    public List<Member> findByAgeAfter(int age, String lastUsername, Long lastId, int limit) {
+        if (lastUsername == null || lastId == null) {
+            return em.createQuery(FIND_BY_AGE_FIRST, Member.class)
+                    .setParameter("age", age)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return em.createQuery(FIND_BY_AGE_AFTER, Member.class)
                 .setParameter("age", age)
-                .getSingleResult();
+                .setParameter("username", lastUsername)
+                .setParameter("id", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 전체 회원을 List에 모으지 않고 한 건씩 action에 넘긴다.
+     * ScrollableResults(FORWARD_ONLY)로 fetchSize만큼씩 DB에서 가져오고 DTO로 바로 조회하므로 엔티티 스냅샷이 생기지 않는다.
+     * fetchSize마다 clear()로 영속성 컨텍스트를 비워 row 수와 관계없이 메모리를 일정하게 유지한다.
+     * 커서가 열려 있는 동안 트랜잭션이 유지되어야 하므로 action 안에서 처리를 끝내야 한다.
+     */
+    @Transactional(readOnly = true)
+    public long forEachMemberDto(int fetchSize, Consumer<MemberDto> action) {
+        Session session = em.unwrap(Session.class);
+        try (ScrollableResults results = session.createQuery(MEMBER_DTO_SCROLL)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheable(false)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            long count = 0;
+            while (results.next()) {
+                action.accept((MemberDto) results.get(0));
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+            return count;
+        }
+    }
+
+    // Member가 변경되지 않았으면 CountCache의 값을 사용한다.
+    public long totalCount(int age) {
+        return countCache.count(COUNT_BY_AGE, new Object[]{age},
+                () -> em.createQuery(COUNT_BY_AGE, Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
     }
 
     /**
      * executeUpdate : 실행 카운트 반환
      */
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1" +
-                        " where m.age >= :age")
+        int resultCount = em.createQuery(AGE_PLUS)
+                .setParameter("now", auditContextHolder.current().getNow())
+                .setParameter("pendingSeq", changeSequencer.pending())
                 .setParameter("age", age)
                 .executeUpdate();
+        eventPublisher.publishEvent(new MemberBulkUpdateEvent(resultCount));
+        return resultCount;
+    }
+
+    /**
+     * bulkAgePlus를 PK 범위 청크로 나누어 청크마다 짧은 트랜잭션으로 실행한다.
+     * 대상 행 전체를 한 번에 잠그지 않으므로 큰 테이블에서 다른 읽기/쓰기를 오래 막지 않는다.
+     */
+    public ChunkedUpdateResult bulkAgePlusChunked(int age, ChunkedUpdateOptions options) {
+        return chunkedUpdater.bulkAgePlus(age, options);
     }
 }
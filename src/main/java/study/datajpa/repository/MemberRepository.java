@@ -6,10 +6,12 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.CacheRegions;
 import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +27,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     @Query(name = "Member.findByUserName")
         // Member Entity의 @namedQuery를 찾는다. - 생략해도 메소드명으로 알아서 찾는다.
+    // 쿼리 캐시 : 결과 id 목록을 캐시하고 엔티티는 member 영역에서 가져온다. Member 테이블이 변경되면 무효화된다.
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.MEMBER_QUERY)})
     List<Member> findByUsername(@Param("username") String username);
 
     /**
@@ -71,14 +76,30 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m) from Member m")
     Page<Member> findByAge(int age, Pageable pageable);
 
+    /**
+     * 키셋 페이징 : 마지막으로 받은 id 이후부터 limit만큼 조회한다.(PageRequest.of(0, limit)로 limit만 넘긴다.)
+     * offset을 쓰지 않으므로 페이지가 깊어져도 PK 인덱스에서 필요한 만큼만 읽는다.
+     */
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+            " where m.id > :lastId order by m.id")
+    List<MemberDto> findMemberDtoAfter(@Param("lastId") long lastId, Pageable pageable);
+
     /**
      * @Modifying을 넣어야 executeQuery()를 실행한다.
      * 넣지않으면 에러가 난다.
      */
+    // 벌크 연산은 AuditListener를 거치지 않으므로 수정 시각을 직접 넣는다.(ETag가 바뀌도록)
+    // DB의 CURRENT_TIMESTAMP는 트랜잭션 시작 시각일 수 있어 엔티티와 같은 AuditContextHolder 시각을 사용한다.
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age+1 where m.age >= :age")
+    // 변경 피드의 임시 순번(MemberChangeSequencer)도 직접 넣는다.
+    @Query("update versioned Member m set m.age = m.age+1, m.lastModifiedDate = :#{@auditContextHolder.current().now}," +
+            " m.changeSeq = :#{@memberChangeSequencer.pending()} where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
+    // 조건부 GET(ETag) : 엔티티를 조회하지 않고 수정 시각만 조회한다.
+    @Query("select m.lastModifiedDate from Member m where m.id = :id")
+    Optional<LocalDateTime> findLastModifiedDateById(@Param("id") long id);
+
     // Member를 조회할 때 연관된 팀을 한번에 끌고 온다. => N+1문제 해결
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
@@ -1,12 +1,54 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.ChangeFeed;
+import study.datajpa.dto.ChangePosition;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.ResourceVersion;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.ChunkedUpdateResult;
+import study.datajpa.repository.support.InListStrategy;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 // 사용자 정의 레파지토리 구현(QueryDSL에서 많이 사용)
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
 
+    // chunkSize 단위로 flush, clear하며 JDBC 배치로 저장한다.
+    int saveAllBatched(Iterable<Member> members, int chunkSize);
+
+    // count 쿼리 결과를 CountCache에 캐시하는 페이징
+    Page<Member> findAllWithCachedCount(Pageable pageable);
+
+    Page<Member> findPageByAge(int age, Pageable pageable);
+
+    // expand로 요청한 연관관계만 함께 로딩한다.(FetchPlan)
+    Page<Member> findAllExpanded(Pageable pageable, Collection<String> expand);
+
+    // 엔티티를 거치지 않고 DTO로 바로 조회하는 페이징(team 조인 포함)
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    // 목록(/members) ETag : 회원/팀 변경의 마지막 커밋 순번
+    ResourceVersion findMemberListVersion();
+
+    // after 이후 변경/삭제된 회원을 (커밋 순번, id) 순서로 최대 size개 조회한다.(변경 피드)
+    // 삭제 기록 보관 기간보다 오래된 위치면 ChangeFeedExpiredException
+    ChangeFeed findChangesAfter(ChangePosition after, int size);
+
+    // since 시각 이후 변경/삭제된 회원부터 조회한다.(변경 피드의 첫 요청)
+    ChangeFeed findChangesSince(LocalDateTime since, int size);
+
+    // username 목록이 커지면 나누어 조회하거나 임시 테이블과 조인한다.(MemberNamesLoader)
+    List<Member> findByNamesAdaptive(Collection<String> names);
+
+    List<Member> findByNamesUsing(Collection<String> names, InListStrategy strategy);
+
+    // bulkAgePlus를 PK 범위 청크마다 별도 트랜잭션으로 실행한다.(병렬 실행, 진행 상황, 이어서 실행 지원)
+    ChunkedUpdateResult bulkAgePlusChunked(int age, ChunkedUpdateOptions options);
 
 }
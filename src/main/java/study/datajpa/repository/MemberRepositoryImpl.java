@@ -1,21 +1,248 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.audit.AuditContextHolder;
+import study.datajpa.dto.ChangeFeed;
+import study.datajpa.dto.ChangePosition;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.ResourceVersion;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BatchSaver;
+import study.datajpa.repository.support.ChangeFeedExpiredException;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.ChunkedUpdateResult;
+import study.datajpa.repository.support.CountCache;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.InListStrategy;
+import study.datajpa.repository.support.JpqlSorts;
+import study.datajpa.repository.support.MemberChangeSequencer;
+import study.datajpa.repository.support.MemberChunkedUpdater;
+import study.datajpa.repository.support.MemberNamesLoader;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 // 사용자 정의 레파지토리 구현
 // 규칙 : MemberRepository로 시작해야한다. 즉 사용하는 Repository의 이름으로 시작해야하며 + Impl으로 끝나야 한다.
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final String COUNT_ALL = "select count(m) from Member m";
+    private static final String COUNT_BY_AGE = "select count(m) from Member m where m.age = :age";
+    private static final String MEMBER_CHANGES = "select new study.datajpa.dto.MemberChange(m.id, m.username, m.age, t.name," +
+            " m.lastModifiedDate, m.changeSeq)" +
+            " from Member m left join m.team t" +
+            " where (m.changeSeq > :seq or (m.changeSeq = :seq and m.id > :id)) and m.changeSeq <= :until" +
+            " order by m.changeSeq, m.id";
+    private static final String MEMBER_TOMBSTONES = "select new study.datajpa.dto.MemberChange(d.id, d.deletedDate, d.changeSeq)" +
+            " from MemberTombstone d" +
+            " where (d.changeSeq > :seq or (d.changeSeq = :seq and d.id > :id)) and d.changeSeq <= :until" +
+            " order by d.changeSeq, d.id";
+    private static final String MEMBER_SEQ_SINCE = "select min(m.changeSeq) from Member m where m.lastModifiedDate >= :since";
+    private static final String TOMBSTONE_SEQ_SINCE = "select min(d.changeSeq) from MemberTombstone d where d.deletedDate >= :since";
+
+    // DTO 필드명 -> JPQL 경로, 이외의 정렬 조건은 허용하지 않는다.(회원 목록 /members, /members?expand 공통)
+    private static final Map<String, String> MEMBER_DTO_SORT = Map.of(
+            "id", "m.id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamName", "t.name");
+
     private final EntityManager em;
+    private final CountCache countCache;
+    private final MemberChunkedUpdater chunkedUpdater;
+    private final AuditContextHolder auditContextHolder;
+    private final MemberNamesLoader namesLoader;
+    private final BatchSaver batchSaver;
+    private final MemberChangeSequencer changeSequencer;
+
+    // 삭제 기록(MemberTombstone) 보관 기간, 이보다 오래된 since는 삭제를 놓칠 수 있으므로 거절한다.
+    @Value("${datajpa.changes.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    /**
+     * 트랜잭션은 BatchSaver가 건다.
+     * clear()는 호출한 쪽의 영속성 컨텍스트도 비우므로 이후 저장한 엔티티는 준영속 상태가 된다.
+     */
+    @Override
+    public int saveAllBatched(Iterable<Member> members, int chunkSize) {
+        return batchSaver.saveAll(members, chunkSize);
+    }
+
+    /**
+     * count는 CountCache에서 가져오고 Member가 변경되었을 때만 다시 조회한다.
+     */
+    @Override
+    public Page<Member> findAllWithCachedCount(Pageable pageable) {
+        List<Member> content = paging(em.createQuery(
+                QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m"), Member.class), pageable)
+                .getResultList();
+        return countCache.page(content, pageable,
+                () -> em.createQuery(COUNT_ALL, Long.class).getSingleResult(),
+                COUNT_ALL);
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable) {
+        List<Member> content = paging(em.createQuery(
+                QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class), pageable)
+                .setParameter("age", age)
+                .getResultList();
+        return countCache.page(content, pageable,
+                () -> em.createQuery(COUNT_BY_AGE, Long.class).setParameter("age", age).getSingleResult(),
+                COUNT_BY_AGE, age);
+    }
+
+    /**
+     * 단일 값 연관관계는 엔티티 그래프로 조인하고 컬렉션은 조회 후 배치로 초기화하므로
+     * 컬렉션을 요청해도 페이징은 DB에서 한다.
+     * 초기화까지 같은 영속성 컨텍스트에서 해야 하므로 트랜잭션을 연다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findAllExpanded(Pageable pageable, Collection<String> expand) {
+        FetchPlan<Member> plan = FetchPlan.of(em, Member.class, expand);
+        // 정렬은 DTO 목록(findMemberDtoPage)과 같은 속성만 허용한다.(teamName 정렬용 조인, 팀이 없는 회원도 포함)
+        List<Member> content = paging(em.createQuery(
+                "select m from Member m left join m.team t" + JpqlSorts.orderBy(pageable.getSort(), MEMBER_DTO_SORT),
+                Member.class), pageable)
+                .setHint("javax.persistence.fetchgraph", plan.getGraph())
+                .getResultList();
+        plan.initialize(content);
+        return countCache.page(content, pageable,
+                () -> em.createQuery(COUNT_ALL, Long.class).getSingleResult(),
+                COUNT_ALL);
+    }
+
+    /**
+     * 생성자 표현식으로 조회한 DTO는 영속성 컨텍스트에 올라가지 않으므로
+     * 스냅샷(변경 감지), 프록시, auditing 필드를 만들지 않는다.
+     */
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        String jpql = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t" + JpqlSorts.orderBy(pageable.getSort(), MEMBER_DTO_SORT);
+        List<MemberDto> content = paging(em.createQuery(jpql, MemberDto.class), pageable)
+                .getResultList();
+        return countCache.page(content, pageable,
+                () -> em.createQuery(COUNT_ALL, Long.class).getSingleResult(),
+                COUNT_ALL);
+    }
+
+    /**
+     * 마지막으로 커밋된 순번(change_clock)
+     * 회원 저장/수정/삭제 기록과 팀 변경(TeamChangeListener)은 커밋 순서대로 순번을 받으므로
+     * 먼저 시작해서 늦게 커밋한 변경도 목록 버전을 바꾼다.(수정 시각의 max는 바뀌지 않을 수 있다.)
+     * member, member_tombstone의 커밋된 max(change_seq)와 같고 삭제 기록을 지워도 줄어들지 않는다.
+     * 삭제 기록을 남기지 않는 벌크 delete(deleteAllInBatch 등)는 감지하지 못한다.
+     */
+    @Override
+    public ResourceVersion findMemberListVersion() {
+        return new ResourceVersion(changeSequencer.committed());
+    }
+
+    /**
+     * 지운 삭제 기록(MemberChangeSequencer.purged)보다 앞선 위치는 삭제를 놓칠 수 있으므로 거절한다.
+     */
+    @Override
+    public ChangeFeed findChangesAfter(ChangePosition after, int size) {
+        long purged = changeSequencer.purged();
+        if (after.compareTo(ChangePosition.through(purged)) < 0) {
+            throw new ChangeFeedExpiredException("change token expired, full resync required");
+        }
+        return changes(after, size);
+    }
+
+    /**
+     * since 이후에 수정/삭제된 행의 가장 작은 커밋 순번부터 시작한다.(since 이전에 수정된 행이 섞일 수 있다.)
+     * 수정 시각은 flush 시각이므로 since 이후에 커밋된 변경은 모두 포함된다.
+     */
+    @Override
+    public ChangeFeed findChangesSince(LocalDateTime since, int size) {
+        if (since.isBefore(auditContextHolder.current().getNow().minusDays(tombstoneRetentionDays))) {
+            throw new ChangeFeedExpiredException("since is older than " + tombstoneRetentionDays + " days, full resync required");
+        }
+        long committed = changeSequencer.committed();
+        Long memberSeq = em.createQuery(MEMBER_SEQ_SINCE, Long.class).setParameter("since", since).getSingleResult();
+        Long tombstoneSeq = em.createQuery(TOMBSTONE_SEQ_SINCE, Long.class).setParameter("since", since).getSingleResult();
+        long start = Math.min(memberSeq == null ? committed + 1 : memberSeq, tombstoneSeq == null ? committed + 1 : tombstoneSeq);
+        return changes(ChangePosition.through(start - 1), size);
+    }
+
+    /**
+     * 회원과 삭제 기록을 각각 (커밋 순번, id) 인덱스로 size + 1개씩 읽어 합친다.
+     * 변경된 회원 수만큼만 읽으므로 전체 회원 수와 관계없다.
+     *
+     * until(조회 시작 시점에 커밋된 순번) 이하의 순번은 모두 커밋된 상태이므로 두 조회가 같은 범위를 본다.
+     * 끝까지 읽었으면 until까지 모두 받은 것이므로 토큰을 until로 옮긴다.
+     */
+    private ChangeFeed changes(ChangePosition after, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        long until = changeSequencer.committed();
+        if (after.compareTo(ChangePosition.through(until)) >= 0) {
+            return new ChangeFeed(List.of(), after, false);
+        }
+
+        List<MemberChange> changes = new ArrayList<>(changesAfter(MEMBER_CHANGES, after, until, size + 1));
+        changes.addAll(changesAfter(MEMBER_TOMBSTONES, after, until, size + 1));
+        changes.sort(Comparator.comparing(MemberChange::position));
+
+        if (changes.size() <= size) {
+            return new ChangeFeed(changes, ChangePosition.through(until), false);
+        }
+        List<MemberChange> page = changes.subList(0, size);
+        return new ChangeFeed(new ArrayList<>(page), page.get(size - 1).position(), true);
+    }
+
+    private List<MemberChange> changesAfter(String jpql, ChangePosition after, long until, int limit) {
+        return em.createQuery(jpql, MemberChange.class)
+                .setParameter("seq", after.getSeq())
+                .setParameter("id", after.getId())
+                .setParameter("until", until)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Member> findByNamesAdaptive(Collection<String> names) {
+        return namesLoader.findByNames(names, InListStrategy.AUTO);
+    }
+
+    @Override
+    public List<Member> findByNamesUsing(Collection<String> names, InListStrategy strategy) {
+        return namesLoader.findByNames(names, strategy);
+    }
+
+    @Override
+    public ChunkedUpdateResult bulkAgePlusChunked(int age, ChunkedUpdateOptions options) {
+        return chunkedUpdater.bulkAgePlus(age, options);
+    }
+
+    private <T> TypedQuery<T> paging(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
 }
@@ -3,18 +3,27 @@ package study.datajpa.repository;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.support.WarmupQuerySource;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 //순수 JPA
-public class TeamJpaRepository {
+public class TeamJpaRepository implements WarmupQuerySource {
+
+    private static final String COUNT = "select count(t) from Team t";
 
     @PersistenceContext
     private EntityManager em;
 
+    @Override
+    public List<String> warmupQueries() {
+        return List.of(COUNT);
+    }
+
     public Team save(Team team) {
         em.persist(team);
         return team;
@@ -34,7 +43,7 @@ public class TeamJpaRepository {
     }
 
     public long cnt() {
-        return em.createQuery("select count(t) from Team t", Long.class)
+        return em.createQuery(COUNT, Long.class)
                 .getSingleResult();
     }
 
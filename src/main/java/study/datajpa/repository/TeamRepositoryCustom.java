@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.TeamDto;
+
+public interface TeamRepositoryCustom {
+
+    // 팀 id를 먼저 페이징하고 해당 팀의 회원만 한 번에 조회한다.(컬렉션 fetch join 페이징)
+    Page<TeamDto> findTeamDtoPage(Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.JpqlSorts;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final String COUNT_ALL = "select count(t) from Team t";
+    // 응답의 회원 순서가 매번 같도록 회원 id로 정렬한다.
+    private static final String TEAMS_WITH_MEMBERS = "select distinct t from Team t left join fetch t.members m" +
+            " where t.id in :ids order by m.id";
+
+    private static final Map<String, String> TEAM_SORT = Map.of(
+            "id", "t.id",
+            "name", "t.name");
+
+    private final EntityManager em;
+
+    /**
+     * 컬렉션을 fetch join하면서 페이징하면 Hibernate는 limit 없이 전체를 읽고 메모리에서 자른다.(HHH000104)
+     * 1. 팀 id만 페이징해서 조회한다.(SQL에 limit/offset)
+     * 2. 그 id의 팀과 회원을 fetch join으로 한 번에 조회하고 1의 순서대로 다시 정렬한다.
+     * 같은 정렬 값이 있어도 페이지가 겹치지 않도록 마지막에 id로 정렬한다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TeamDto> findTeamDtoPage(Pageable pageable) {
+        String orderBy = JpqlSorts.orderBy(pageable.getSort(), TEAM_SORT);
+        orderBy = orderBy.isEmpty() ? " order by t.id" : orderBy + ", t.id";
+        TypedQuery<Long> idQuery = em.createQuery("select t.id from Team t" + orderBy, Long.class);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset());
+            idQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = idQuery.getResultList();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        Map<Long, Team> teams = em.createQuery(TEAMS_WITH_MEMBERS, Team.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false) // distinct는 엔티티 중복 제거에만 사용한다.
+                .getResultList().stream()
+                .collect(Collectors.toMap(Team::getId, Function.identity()));
+        List<TeamDto> content = ids.stream()
+                .map(teams::get)
+                .filter(Objects::nonNull) // 두 조회 사이에 삭제된 팀
+                .map(team -> new TeamDto(team, true))
+                .collect(Collectors.toList());
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> em.createQuery(COUNT_ALL, Long.class).getSingleResult());
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.repository.support;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 대량 저장
+ * chunkSize마다 flush()로 모아둔 insert를 JDBC 배치(hibernate.jdbc.batch_size)로 보내고
+ * clear()로 영속성 컨텍스트를 비워 메모리를 일정하게 유지한다.
+ *
+ * clear()는 호출한 쪽의 영속성 컨텍스트도 비우므로 이후 저장한 엔티티는 준영속 상태가 된다.
+ * MemberJpaRepository(순수 JPA)와 MemberRepository(사용자 정의 레파지토리)가 함께 사용한다.
+ */
+@Component
+public class BatchSaver {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Transactional
+    public <T> int saveAll(Iterable<T> entities, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        int count = 0;
+        for (T entity : entities) {
+            em.persist(entity);
+            if (++count % chunkSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+}
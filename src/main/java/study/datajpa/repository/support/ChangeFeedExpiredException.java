@@ -0,0 +1,12 @@
+package study.datajpa.repository.support;
+
+/**
+ * 변경 피드의 위치(토큰, since)가 삭제 기록 보관 기간보다 오래되었다.
+ * 그 사이의 삭제를 알려줄 수 없으므로 클라이언트는 전체를 다시 받고(full resync) 새 since로 시작해야 한다.
+ */
+public class ChangeFeedExpiredException extends RuntimeException {
+
+    public ChangeFeedExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 하나가 커밋될 때마다 전달되는 진행 상황
+ */
+@Getter
+@ToString
+public class ChunkProgress {
+
+    private final long chunkStartId;
+    private final long chunkEndId; // 미포함
+    private final int updatedInChunk;
+    private final long totalUpdated;
+    private final int completedChunks;
+    private final int totalChunks;
+
+    public ChunkProgress(long chunkStartId, long chunkEndId, int updatedInChunk,
+                         long totalUpdated, int completedChunks, int totalChunks) {
+        this.chunkStartId = chunkStartId;
+        this.chunkEndId = chunkEndId;
+        this.updatedInChunk = updatedInChunk;
+        this.totalUpdated = totalUpdated;
+        this.completedChunks = completedChunks;
+        this.totalChunks = totalChunks;
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.repository.support;
+
+/**
+ * 병렬로 실행해도 호출한 스레드에서 순서대로 호출된다.
+ */
+@FunctionalInterface
+public interface ChunkProgressListener {
+
+    void onProgress(ChunkProgress progress);
+}
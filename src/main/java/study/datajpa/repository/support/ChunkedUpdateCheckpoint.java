@@ -0,0 +1,27 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 청크 단위 벌크 연산을 이어서 실행하기 위한 위치
+ * nextId 이전의 청크는 모두 커밋되었고, 병렬 실행 중 nextId 이후에 먼저 커밋된 청크는 completedChunkStarts에 남긴다.
+ * 같은 청크를 두 번 실행하면 나이가 두 번 증가하므로 이어서 실행할 때는 커밋된 청크를 모두 건너뛴다.
+ */
+@Getter
+@ToString
+public class ChunkedUpdateCheckpoint {
+
+    private final long nextId;
+    private final int chunkSize;
+    private final Set<Long> completedChunkStarts;
+
+    public ChunkedUpdateCheckpoint(long nextId, int chunkSize, Set<Long> completedChunkStarts) {
+        this.nextId = nextId;
+        this.chunkSize = chunkSize;
+        this.completedChunkStarts = Collections.unmodifiableSet(completedChunkStarts);
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+
+/**
+ * 청크 실행 중 실패
+ * 이미 커밋된 청크는 되돌리지 않으므로 checkpoint로 나머지를 이어서 실행한다.
+ */
+@Getter
+public class ChunkedUpdateException extends RuntimeException {
+
+    private final ChunkedUpdateCheckpoint checkpoint;
+    private final long updatedCount;
+
+    public ChunkedUpdateException(ChunkedUpdateCheckpoint checkpoint, long updatedCount, Throwable cause) {
+        super("chunked update failed, resume from id " + checkpoint.getNextId(), cause);
+        this.checkpoint = checkpoint;
+        this.updatedCount = updatedCount;
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.repository.support;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * chunkSize : 한 트랜잭션에서 처리할 id 범위(행 잠금을 잡는 범위)
+ * parallelism : 동시에 실행할 청크 수(청크마다 커넥션을 하나씩 사용하므로 커넥션 풀 크기보다 작게)
+ * resumeFrom : 실패한 작업의 ChunkedUpdateException.getCheckpoint()
+ */
+@Getter
+@Builder
+public class ChunkedUpdateOptions {
+
+    @Builder.Default
+    private final int chunkSize = 1000;
+
+    @Builder.Default
+    private final int parallelism = 1;
+
+    private final ChunkedUpdateCheckpoint resumeFrom;
+
+    @Builder.Default
+    private final ChunkProgressListener progressListener = progress -> {
+    };
+
+    public static ChunkedUpdateOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class ChunkedUpdateResult {
+
+    private final long updatedCount;
+    private final int chunkCount;
+
+    public ChunkedUpdateResult(long updatedCount, int chunkCount) {
+        this.updatedCount = updatedCount;
+        this.chunkCount = chunkCount;
+    }
+}
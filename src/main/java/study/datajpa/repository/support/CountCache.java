@@ -0,0 +1,175 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.datajpa.entity.Member;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Page 조회의 count 쿼리 결과 캐시
+ * 쿼리 + 파라미터를 키로 count 결과를 저장하고 Member가 저장, 수정, 삭제되거나 벌크 연산이 실행되면 전부 무효화한다.
+ * 무효화는 세대(generation) 번호를 올리는 방식이라 쓰기 시점에 맵을 순회하지 않는다.
+ *
+ * estimate 모드에서는 무효화된 값이라도 max-staleness-ms 이내에 계산한 값이면 그대로 돌려준다.(추정 total)
+ * max-entries를 넘으면 가장 오래 사용하지 않은 키부터 하나씩 제거한다.(LRU, 자주 쓰는 count는 남는다.)
+ */
+@Component
+public class CountCache implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final boolean enabled;
+    private final boolean estimate;
+    private final long maxStalenessMillis;
+
+    private final Map<List<Object>, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CountCache(EntityManagerFactory emf,
+                      @Value("${datajpa.count-cache.enabled:true}") boolean enabled,
+                      @Value("${datajpa.count-cache.estimate:false}") boolean estimate,
+                      @Value("${datajpa.count-cache.max-staleness-ms:5000}") long maxStalenessMillis,
+                      @Value("${datajpa.count-cache.max-entries:1000}") int maxEntries) {
+        this.emf = emf;
+        this.enabled = enabled;
+        this.estimate = estimate;
+        this.maxStalenessMillis = maxStalenessMillis;
+        // 조회할 때도 접근 순서가 바뀌므로(accessOrder) 읽기도 동기화한다. count 조회에 비하면 무시할 수 있는 비용이다.
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * flush 시점(같은 트랜잭션의 다음 조회)과 커밋 시점(다른 트랜잭션의 조회) 모두 무효화한다.
+     */
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * content는 이미 조회한 페이지 내용
+     * 마지막 페이지처럼 content만으로 total을 알 수 있으면 count를 조회하지 않는다.
+     */
+    public <T> Page<T> page(List<T> content, Pageable pageable, LongSupplier counter, String query, Object... params) {
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(query, params, counter));
+    }
+
+    public long count(String query, Object[] params, LongSupplier counter) {
+        if (!enabled) {
+            return counter.getAsLong();
+        }
+        List<Object> key = key(query, params);
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.generation == generation.get()) {
+                return entry.count;
+            }
+            if (estimate && now - entry.computedAt <= maxStalenessMillis) {
+                return entry.count;
+            }
+        }
+
+        // 계산 중에 무효화되면 저장한 값도 바로 무효가 되도록 세대 번호를 먼저 읽는다.
+        long currentGeneration = generation.get();
+        long count = counter.getAsLong();
+        cache.put(key, new Entry(count, currentGeneration, now));
+        return count;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onBulkUpdate(MemberBulkUpdateEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener
+    public void onBulkUpdateCommitted(MemberBulkUpdateEvent event) {
+        invalidate();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidateIfMember(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidateIfMember(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidateIfMember(event.getEntity());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Member.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    private void invalidateIfMember(Object entity) {
+        if (entity instanceof Member) {
+            invalidate();
+        }
+    }
+
+    private List<Object> key(String query, Object[] params) {
+        List<Object> key = new ArrayList<>(params.length + 1);
+        key.add(query);
+        for (Object param : params) {
+            key.add(param);
+        }
+        return key;
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long generation;
+        private final long computedAt;
+
+        private Entry(long count, long generation, long computedAt) {
+            this.count = count;
+            this.generation = generation;
+            this.computedAt = computedAt;
+        }
+    }
+}
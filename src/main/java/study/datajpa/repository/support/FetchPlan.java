@@ -0,0 +1,128 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ?expand=team,team.members 처럼 요청한 연관관계만 로딩하는 계획
+ * 단일 값 연관관계(ManyToOne, OneToOne)는 엔티티 그래프(fetchgraph)에 넣어 조인으로 한 번에 가져오고
+ * 컬렉션은 그래프에 넣지 않고(페이징이 메모리에서 일어나므로) 조회 후 초기화한다.
+ * 컬렉션 초기화는 default_batch_fetch_size만큼 in 쿼리로 묶이므로 페이지 크기와 관계없이 쿼리 수가 일정하다.
+ *
+ * 경로는 메타모델로 검증하고 연관관계가 아니거나 없는 속성이면 InvalidQueryParameterException
+ */
+public final class FetchPlan<T> {
+
+    private static final int MAX_DEPTH = 3;
+
+    private final EntityGraph<T> graph;
+    // 조회 후 초기화할 경로(컬렉션이 포함된 경로)
+    private final List<List<String>> initializePaths;
+
+    private FetchPlan(EntityGraph<T> graph, List<List<String>> initializePaths) {
+        this.graph = graph;
+        this.initializePaths = initializePaths;
+    }
+
+    public static <T> FetchPlan<T> of(EntityManager em, Class<T> root, Collection<String> expand) {
+        EntityGraph<T> graph = em.createEntityGraph(root);
+        Map<String, Subgraph<?>> subgraphs = new HashMap<>();
+        List<List<String>> initializePaths = new ArrayList<>();
+
+        for (String path : new LinkedHashSet<>(expand)) {
+            String[] names = path.trim().split("\\.");
+            if (path.trim().isEmpty() || names.length > MAX_DEPTH) {
+                throw new InvalidQueryParameterException("unsupported expand: " + path);
+            }
+            ManagedType<?> type = em.getMetamodel().managedType(root);
+            String prefix = "";
+            boolean inGraph = true;
+            for (String name : names) {
+                Attribute<?, ?> attribute = attribute(type, name, path);
+                if (attribute.isCollection()) {
+                    inGraph = false;
+                    type = em.getMetamodel().managedType(((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType());
+                } else {
+                    if (inGraph) {
+                        addSubgraph(graph, subgraphs, prefix, name);
+                    }
+                    type = em.getMetamodel().managedType(((SingularAttribute<?, ?>) attribute).getJavaType());
+                }
+                prefix = prefix.isEmpty() ? name : prefix + "." + name;
+            }
+            if (!inGraph) {
+                initializePaths.add(List.of(names));
+            }
+        }
+        return new FetchPlan<>(graph, initializePaths);
+    }
+
+    // fetchgraph 힌트로 사용한다.
+    public EntityGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * 그래프로 가져오지 않은 컬렉션(과 그 아래 경로)을 초기화한다. 영속성 컨텍스트가 열려 있어야 한다.
+     */
+    public void initialize(Collection<? extends T> entities) {
+        for (List<String> path : initializePaths) {
+            for (T entity : entities) {
+                initialize(entity, path, 0);
+            }
+        }
+    }
+
+    private void initialize(Object entity, List<String> path, int index) {
+        if (entity == null || index == path.size()) {
+            return;
+        }
+        Object value = PropertyAccessorFactory.forDirectFieldAccess(Hibernate.unproxy(entity))
+                .getPropertyValue(path.get(index));
+        Hibernate.initialize(value);
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                initialize(element, path, index + 1);
+            }
+        } else {
+            initialize(value, path, index + 1);
+        }
+    }
+
+    private static Attribute<?, ?> attribute(ManagedType<?> type, String name, String path) {
+        Attribute<?, ?> attribute;
+        try {
+            attribute = type.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryParameterException("unsupported expand: " + path, e);
+        }
+        if (!attribute.isAssociation()) {
+            throw new InvalidQueryParameterException("unsupported expand: " + path);
+        }
+        return attribute;
+    }
+
+    private static void addSubgraph(EntityGraph<?> graph, Map<String, Subgraph<?>> subgraphs, String prefix, String name) {
+        String key = prefix.isEmpty() ? name : prefix + "." + name;
+        if (subgraphs.containsKey(key)) {
+            return;
+        }
+        Subgraph<?> subgraph = prefix.isEmpty() ? graph.addSubgraph(name) : subgraphs.get(prefix).addSubgraph(name);
+        subgraphs.put(key, subgraph);
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.repository.support;
+
+/**
+ * 많은 키로 조회할 때(where username in (...)) 사용하는 방법
+ */
+public enum InListStrategy {
+    // in 쿼리 한 번(in_clause_parameter_padding으로 파라미터 수를 2의 거듭제곱으로 맞춘다.)
+    IN_LIST,
+    // chunk-size개씩 나누어 in 쿼리를 여러 번 실행하고 합친다.
+    CHUNKED,
+    // 키를 임시 테이블에 배치로 넣고 조인한다.
+    TEMP_TABLE,
+    // 키 개수로 위 셋 중 하나를 고른다.
+    AUTO
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository.support;
+
+/**
+ * 요청에서 받은 조회 조건(expand 경로, 정렬 속성)을 지원하지 않는다.
+ * 컨트롤러는 이 예외만 400으로 바꾼다.
+ * IllegalArgumentException을 상속하면 레파지토리 프록시가 InvalidDataAccessApiUsageException으로 바꾸고
+ * 다른 사용 오류와 구분할 수 없으므로 RuntimeException을 상속한다.
+ */
+public class InvalidQueryParameterException extends RuntimeException {
+
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+
+    public InvalidQueryParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+/**
+ * Sort를 JPQL order by 절로 바꾼다.
+ * 요청 파라미터의 정렬 속성을 그대로 JPQL에 넣지 않도록 허용한 속성(속성명 -> JPQL 경로)만 사용한다.
+ */
+public final class JpqlSorts {
+
+    private JpqlSorts() {
+    }
+
+    /**
+     * 정렬 조건이 없으면 빈 문자열, 허용하지 않은 속성이면 InvalidQueryParameterException
+     */
+    public static String orderBy(Sort sort, Map<String, String> properties) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            String path = properties.get(order.getProperty());
+            if (path == null) {
+                throw new InvalidQueryParameterException("unsupported sort property: " + order.getProperty());
+            }
+            if (orderBy.length() > " order by ".length()) {
+                orderBy.append(", ");
+            }
+            orderBy.append(order.isIgnoreCase() ? "lower(" + path + ")" : path)
+                    .append(order.isAscending() ? " asc" : " desc");
+        }
+        return orderBy.toString();
+    }
+}
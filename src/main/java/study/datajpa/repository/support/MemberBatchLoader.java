@@ -0,0 +1,154 @@
+package study.datajpa.repository.support;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.dto.BatchLoaderStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 요청의 findById를 모아서 한 번에 조회한다.(DataLoader 방식)
+ * 처음 요청이 들어온 뒤 window-ms 동안(또는 max-batch-size개가 모일 때까지) 모은 id를
+ * where id in (...) 한 번으로 조회하고 각 요청의 future를 완료한다.
+ * 조회는 queryExecutor에서 실행하고 트랜잭션이 끝난 뒤 돌려주므로 결과는 준영속 엔티티다.
+ */
+@Component
+public class MemberBatchLoader {
+
+    private final MemberRepository memberRepository;
+    private final Executor queryExecutor;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+
+    private Batch current; // this로 동기화
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final Recorder waitMicros = new Recorder(2);
+    private Histogram recycled;
+
+    public MemberBatchLoader(MemberRepository memberRepository,
+                             @Qualifier(AsyncConfig.QUERY_EXECUTOR) Executor queryExecutor,
+                             @Value("${datajpa.member-loader.window-us:2000}") long windowMicros,
+                             @Value("${datajpa.member-loader.max-batch-size:100}") int maxBatchSize) {
+        this.memberRepository = memberRepository;
+        this.queryExecutor = queryExecutor;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Optional<Member>> load(long id) {
+        requests.increment();
+        CompletableFuture<Optional<Member>> future;
+        Batch full = null;
+        synchronized (this) {
+            if (current == null) {
+                Batch batch = new Batch();
+                current = batch;
+                timer.schedule(() -> dispatchIfCurrent(batch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            future = current.add(id);
+            if (current.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    public synchronized BatchLoaderStatsDto stats() {
+        Histogram histogram = waitMicros.getIntervalHistogram(recycled);
+        recycled = histogram;
+        return new BatchLoaderStatsDto(requests.sum(), batches.sum(), keys.sum(), maxBatchSize,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMaxValue());
+    }
+
+    @PreDestroy
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void dispatchIfCurrent(Batch batch) {
+        synchronized (this) {
+            if (current != batch) {
+                return; // 가득 차서 이미 실행됨
+            }
+            current = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        waitMicros.recordValue(Math.max(0, (System.nanoTime() - batch.createdAt) / 1000));
+        batches.increment();
+        keys.add(batch.size());
+        try {
+            queryExecutor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            batch.fail(e);
+        }
+    }
+
+    private void execute(Batch batch) {
+        try {
+            Map<Long, Member> found = new HashMap<>();
+            for (Member member : memberRepository.findAllById(batch.waiting.keySet())) {
+                found.put(member.getId(), member);
+            }
+            batch.waiting.forEach((id, futures) -> {
+                Optional<Member> member = Optional.ofNullable(found.get(id));
+                futures.forEach(future -> future.complete(member));
+            });
+        } catch (RuntimeException e) {
+            batch.fail(e);
+        }
+    }
+
+    private static class Batch {
+        private final long createdAt = System.nanoTime();
+        private final Map<Long, List<CompletableFuture<Optional<Member>>>> waiting = new LinkedHashMap<>();
+
+        private CompletableFuture<Optional<Member>> add(long id) {
+            CompletableFuture<Optional<Member>> future = new CompletableFuture<>();
+            waiting.computeIfAbsent(id, key -> new ArrayList<>(1)).add(future);
+            return future;
+        }
+
+        private int size() {
+            return waiting.size();
+        }
+
+        private void fail(Throwable e) {
+            waiting.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * MemberRepository의 @Modifying 메소드(벌크 연산)가 끝나면 MemberBulkUpdateEvent를 발행한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberBulkUpdateAspect {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @AfterReturning(pointcut = "execution(* study.datajpa.repository.MemberRepository.*(..))" +
+            " && @annotation(org.springframework.data.jpa.repository.Modifying)", returning = "result")
+    public void publish(Object result) {
+        int updatedCount = result instanceof Integer ? (Integer) result : -1;
+        eventPublisher.publishEvent(new MemberBulkUpdateEvent(updatedCount));
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+
+/**
+ * Member에 대한 JPQL 벌크 연산이 실행되었음을 알린다.
+ * 벌크 연산은 엔티티 이벤트를 거치지 않으므로 Member 기준으로 캐시한 값들은 이 이벤트로 갱신한다.
+ */
+@Getter
+public class MemberBulkUpdateEvent {
+
+    private final int updatedCount;
+
+    public MemberBulkUpdateEvent(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+}
@@ -0,0 +1,135 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 변경 피드(/members/changes)의 커밋 순번
+ * 수정 시각은 flush 시점에 정해지므로 커밋 순서와 다르다.(먼저 flush하고 늦게 커밋한 변경을 토큰이 건너뛸 수 있다.)
+ *
+ * Member 저장/수정(MemberChangeListener, 벌크 연산), 삭제 기록(MemberTombstoneRecorder)은 change_seq에
+ * 트랜잭션마다 하나인 임시 순번(음수)을 넣고, 커밋 직전(마지막 flush 이후)에 change_clock 행을 증가시킨 값으로 바꾼다.
+ * change_clock 행의 잠금은 커밋할 때까지 유지되므로 순번은 커밋 순서대로 증가하고,
+ * 다른 트랜잭션에서 순번 n이 보이면 n 이하의 순번은 모두 커밋된 상태이다.
+ * 팀 변경(TeamChangeListener)은 표시할 행 없이 순번만 받는다.(회원 목록 ETag)
+ * 대신 Member를 변경하는 트랜잭션의 커밋 구간(순번 부여 ~ 커밋)은 한 번에 하나씩 실행된다.
+ */
+@Component
+public class MemberChangeSequencer {
+
+    public static final String CLOCK = "member";
+    public static final String PURGED = "member_purged";
+
+    private static final Object TRANSACTION_KEY = new Object();
+    private static final String INIT = "insert into change_clock (name, seq) select ?, 0 from dual" +
+            " where not exists (select 1 from change_clock where name = ?)";
+    private static final String ADVANCE = "update change_clock set seq = seq + 1 where name = ?";
+    private static final String ADVANCE_TO = "update change_clock set seq = greatest(seq, ?) where name = ?";
+    private static final String READ = "select seq from change_clock where name = ?";
+    private static final String STAMP_MEMBERS = "update member set change_seq = ? where change_seq = ?";
+    private static final String STAMP_TOMBSTONES = "update member_tombstone set change_seq = ? where change_seq = ?";
+
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+
+    public MemberChangeSequencer(EntityManagerFactory emf, JdbcTemplate jdbcTemplate) {
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initClock() {
+        jdbcTemplate.update(INIT, CLOCK, CLOCK);
+        jdbcTemplate.update(INIT, PURGED, PURGED);
+    }
+
+    /**
+     * 현재 트랜잭션의 임시 순번
+     * 처음 호출할 때 커밋 직전에 실행할 작업(순번 부여)을 세션에 등록한다.
+     * 임시 순번은 트랜잭션마다 임의의 음수이다.(변경한 행의 인덱스(change_seq)만 찾아서 바꾸기 위한 표시)
+     */
+    public long pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("member changes require a transaction");
+        }
+        Long pending = (Long) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (pending == null) {
+            pending = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+            if (em == null) {
+                throw new IllegalStateException("member changes require a JPA transaction");
+            }
+            // 세션의 커밋 처리(마지막 flush 이후, JDBC commit 이전)에서 실행된다. 롤백되면 실행되지 않는다.
+            em.unwrap(EventSource.class).getActionQueue().registerProcess(new CommitStamp(pending));
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingSynchronization(pending));
+        }
+        return pending;
+    }
+
+    // 마지막으로 커밋된 순번
+    public long committed() {
+        return jdbcTemplate.queryForObject(READ, Long.class, CLOCK);
+    }
+
+    // 지운 삭제 기록의 마지막 순번(이 순번까지의 위치에서 이어받으면 삭제를 놓칠 수 있다.)
+    public long purged() {
+        return jdbcTemplate.queryForObject(READ, Long.class, PURGED);
+    }
+
+    public void markPurged(long seq) {
+        jdbcTemplate.update(ADVANCE_TO, seq, PURGED);
+    }
+
+    private class CommitStamp implements BeforeTransactionCompletionProcess {
+
+        private final long pending;
+
+        private CommitStamp(long pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            jdbcTemplate.update(ADVANCE, CLOCK);
+            long seq = jdbcTemplate.queryForObject(READ, Long.class, CLOCK);
+            jdbcTemplate.update(STAMP_MEMBERS, seq, pending);
+            jdbcTemplate.update(STAMP_TOMBSTONES, seq, pending);
+        }
+    }
+
+    private static class PendingSynchronization implements TransactionSynchronization {
+
+        private final long pending;
+
+        private PendingSynchronization(long pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, pending);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+        }
+    }
+}
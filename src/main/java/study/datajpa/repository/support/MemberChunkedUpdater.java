@@ -0,0 +1,212 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.audit.AuditContextHolder;
+import study.datajpa.config.AsyncConfig;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크 단위 벌크 연산
+ * update 한 번으로 전체를 수정하면 끝날 때까지 대상 행 전체의 잠금을 잡고 있으므로
+ * PK 범위를 chunkSize씩 나누어 청크마다 별도의 짧은 트랜잭션(REQUIRES_NEW)으로 수정한다.
+ *
+ * 청크 경계는 chunkSize의 배수로 고정되어 있어 실패 후 같은 chunkSize로 이어서 실행할 수 있다.
+ * 작업 시작 시점의 최대 id까지만 처리한다.
+ */
+@Component
+public class MemberChunkedUpdater {
+
+    private static final String ID_RANGE = "select min(m.id), max(m.id) from Member m";
+    private static final String AGE_PLUS = "update versioned Member m set m.age = m.age + 1," +
+            " m.lastModifiedDate = :now, m.changeSeq = :pendingSeq where m.age >= :age and m.id >= :startId and m.id < :endId";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditContextHolder auditContextHolder;
+    private final MemberChangeSequencer sequencer;
+    private final Executor executor;
+    private final int maxParallelism;
+
+    /**
+     * 청크는 공유 풀(chunkedUpdateExecutor)에서 실행하고 청크마다 커넥션을 하나씩 사용하므로
+     * parallelism은 커넥션 풀 크기(hikari maximum-pool-size)를 넘을 수 없다.
+     */
+    public MemberChunkedUpdater(PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                AuditContextHolder auditContextHolder, MemberChangeSequencer sequencer,
+                                @Qualifier(AsyncConfig.CHUNKED_UPDATE_EXECUTOR) Executor executor,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxParallelism) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.auditContextHolder = auditContextHolder;
+        this.sequencer = sequencer;
+        this.executor = executor;
+        this.maxParallelism = maxParallelism;
+    }
+
+    /**
+     * bulkAgePlus의 청크 버전
+     * 청크는 별도 트랜잭션에서 커밋되므로 호출한 쪽의 영속성 컨텍스트는 끝난 뒤 비운다.(clearAutomatically와 동일)
+     */
+    public ChunkedUpdateResult bulkAgePlus(int age, ChunkedUpdateOptions options) {
+        // 수정 시각은 청크 트랜잭션마다 새로 읽는다.(오래 걸리는 작업이 변경 피드에서 과거 시각으로 커밋되지 않도록)
+        try {
+            return execute(options, (startId, endId) -> em.createQuery(AGE_PLUS)
+                    .setParameter("now", auditContextHolder.current().getNow())
+                    .setParameter("pendingSeq", sequencer.pending())
+                    .setParameter("age", age)
+                    .setParameter("startId", startId)
+                    .setParameter("endId", endId)
+                    .executeUpdate());
+        } finally {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                em.clear();
+            }
+            eventPublisher.publishEvent(new MemberBulkUpdateEvent(-1));
+        }
+    }
+
+    private ChunkedUpdateResult execute(ChunkedUpdateOptions options, ChunkUpdate update) {
+        ChunkedUpdateCheckpoint resumeFrom = options.getResumeFrom();
+        int chunkSize = resumeFrom != null ? resumeFrom.getChunkSize() : options.getChunkSize();
+        if (chunkSize <= 0 || options.getParallelism() <= 0) {
+            throw new IllegalArgumentException("chunkSize and parallelism must be positive");
+        }
+        if (options.getParallelism() > maxParallelism) {
+            throw new IllegalArgumentException("parallelism must not exceed the connection pool size: " + maxParallelism);
+        }
+
+        Object[] range = chunkTransaction.execute(status -> em.createQuery(ID_RANGE, Object[].class).getSingleResult());
+        if (range == null || range[0] == null) {
+            return new ChunkedUpdateResult(0, 0);
+        }
+        long minId = (Long) range[0];
+        long maxId = (Long) range[1];
+
+        Set<Long> skip = resumeFrom != null ? resumeFrom.getCompletedChunkStarts() : Collections.emptySet();
+        long firstId = resumeFrom != null ? Math.max(minId, resumeFrom.getNextId()) : minId;
+        List<Long> chunkStarts = new ArrayList<>();
+        for (long start = Math.floorDiv(firstId, chunkSize) * chunkSize; start <= maxId; start += chunkSize) {
+            if (!skip.contains(start)) {
+                chunkStarts.add(start);
+            }
+        }
+
+        // 공유 풀이므로 한 번에 parallelism개까지만 넣고 하나가 끝나면 다음 청크를 넣는다.
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Integer>, Long> running = new HashMap<>();
+        Iterator<Long> pending = chunkStarts.iterator();
+        long totalUpdated = 0;
+        Set<Long> completed = new HashSet<>(skip);
+        try {
+            while (running.size() < options.getParallelism() && pending.hasNext()) {
+                submit(completionService, running, pending.next(), chunkSize, update);
+            }
+            for (int i = 0; i < chunkStarts.size(); i++) {
+                Future<Integer> future = completionService.take();
+                long start = running.remove(future);
+                int updated = future.get();
+                completed.add(start);
+                totalUpdated += updated;
+                options.getProgressListener().onProgress(new ChunkProgress(
+                        start, start + chunkSize, updated, totalUpdated, i + 1, chunkStarts.size()));
+                if (pending.hasNext()) {
+                    submit(completionService, running, pending.next(), chunkSize, update);
+                }
+            }
+            return new ChunkedUpdateResult(totalUpdated, chunkStarts.size());
+        } catch (InterruptedException | ExecutionException | RejectedExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            totalUpdated += awaitRunningChunks(completionService, running, completed);
+            throw new ChunkedUpdateException(checkpoint(chunkStarts, completed, maxId, chunkSize), totalUpdated,
+                    e instanceof ExecutionException ? e.getCause() : e);
+        }
+    }
+
+    private void submit(CompletionService<Integer> completionService, Map<Future<Integer>, Long> running,
+                        long start, int chunkSize, ChunkUpdate update) {
+        long endId = start + chunkSize;
+        running.put(completionService.submit(() -> chunkTransaction.execute(status -> update.execute(start, endId))), start);
+    }
+
+    /**
+     * 실패 후 이미 넣은 청크는 커밋(또는 롤백)까지 기다렸다가 성공한 청크를 완료 목록에 넣는다.
+     * 다른 작업과 공유하는 풀이므로 풀을 종료하거나 실행 중인 스레드를 인터럽트하지 않는다.
+     */
+    private long awaitRunningChunks(CompletionService<Integer> completionService, Map<Future<Integer>, Long> running,
+                                    Set<Long> completed) {
+        long updated = 0;
+        while (!running.isEmpty()) {
+            Future<Integer> future;
+            try {
+                future = completionService.poll(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return updated;
+            }
+            if (future == null) {
+                return updated;
+            }
+            Long start = running.remove(future);
+            try {
+                updated += future.get();
+                completed.add(start);
+            } catch (InterruptedException | ExecutionException ignored) {
+                // 실패한 청크는 롤백되었으므로 다시 실행한다.
+            }
+        }
+        return updated;
+    }
+
+    private ChunkedUpdateCheckpoint checkpoint(List<Long> chunkStarts, Set<Long> completed, long maxId, int chunkSize) {
+        long nextId = maxId + 1;
+        for (Long start : chunkStarts) {
+            if (!completed.contains(start)) {
+                nextId = start;
+                break;
+            }
+        }
+        Set<Long> completedAfterNext = new TreeSet<>();
+        for (Long start : completed) {
+            if (start > nextId) {
+                completedAfterNext.add(start);
+            }
+        }
+        return new ChunkedUpdateCheckpoint(nextId, chunkSize, completedAfterNext);
+    }
+
+    @FunctionalInterface
+    private interface ChunkUpdate {
+        int execute(long startId, long endId);
+    }
+}
@@ -0,0 +1,106 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * username 목록으로 회원 조회(findByNames)
+ * in 목록은 hibernate.query.in_clause_parameter_padding으로 파라미터 수를 2의 거듭제곱으로 채우므로
+ * 목록 길이가 달라도 SQL 문자열 종류가 log2(chunk-size)개로 줄어 statement/쿼리 플랜 캐시를 재사용한다.
+ * - chunk-size 이하 : in 쿼리 한 번
+ * - temp-table-threshold 이하 : chunk-size개씩 나누어 조회하고 합친다.
+ * - 그보다 많으면 : 트랜잭션의 커넥션에만 보이는 임시 테이블에 키를 배치로 넣고 조인한다.
+ * 중복된 username은 한 번만 조회한다. 결과 순서는 보장하지 않는다.
+ */
+@Component
+public class MemberNamesLoader {
+
+    private static final String FIND_BY_NAMES = "select m from Member m where m.username in :names";
+    // TRANSACTIONAL : H2에서 DDL이 현재 트랜잭션을 커밋하지 않도록
+    private static final String CREATE_KEYS = "create local temporary table if not exists member_name_keys" +
+            " (username varchar(255) primary key) transactional";
+    private static final String INSERT_KEY = "insert into member_name_keys (username) values (?)";
+    private static final String CLEAR_KEYS = "delete from member_name_keys";
+    private static final String JOIN_KEYS = "select m.* from member m join member_name_keys k on m.username = k.username";
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int tempTableThreshold;
+
+    public MemberNamesLoader(JdbcTemplate jdbcTemplate,
+                             @Value("${datajpa.in-list.chunk-size:1000}") int chunkSize,
+                             @Value("${datajpa.in-list.temp-table-threshold:10000}") int tempTableThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.tempTableThreshold = tempTableThreshold;
+    }
+
+    /**
+     * 임시 테이블과 조회가 같은 커넥션을 사용하고 나누어 조회한 결과가 같은 영속성 컨텍스트에 있도록 트랜잭션을 연다.
+     */
+    @Transactional
+    public List<Member> findByNames(Collection<String> names, InListStrategy strategy) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(names));
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        switch (strategy == InListStrategy.AUTO ? choose(keys.size()) : strategy) {
+            case IN_LIST:
+                return inList(keys);
+            case CHUNKED:
+                return chunked(keys);
+            default:
+                return tempTable(keys);
+        }
+    }
+
+    private InListStrategy choose(int size) {
+        if (size <= chunkSize) {
+            return InListStrategy.IN_LIST;
+        }
+        return size <= tempTableThreshold ? InListStrategy.CHUNKED : InListStrategy.TEMP_TABLE;
+    }
+
+    private List<Member> inList(List<String> keys) {
+        return em.createQuery(FIND_BY_NAMES, Member.class)
+                .setParameter("names", keys)
+                .getResultList();
+    }
+
+    private List<Member> chunked(List<String> keys) {
+        List<Member> result = new ArrayList<>();
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+            result.addAll(inList(keys.subList(start, Math.min(start + chunkSize, keys.size()))));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Member> tempTable(List<String> keys) {
+        // 조인 전에 아직 flush하지 않은 변경을 반영한다.(JdbcTemplate은 영속성 컨텍스트를 거치지 않는다.)
+        em.flush();
+        jdbcTemplate.execute(CREATE_KEYS);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_KEY, keys, INSERT_BATCH_SIZE, (ps, key) -> ps.setString(1, key));
+            return em.createNativeQuery(JOIN_KEYS, Member.class)
+                    .getResultList();
+        } finally {
+            // 임시 테이블은 커넥션이 닫힐 때까지 남아 있으므로(커넥션 풀) 비워서 돌려준다.
+            jdbcTemplate.update(CLEAR_KEYS);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.audit.AuditContextHolder;
+import study.datajpa.entity.Member;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+
+/**
+ * Member가 삭제되면(em.remove : MemberJpaRepository.delete, MemberRepository.delete/deleteById/deleteAll)
+ * 같은 트랜잭션에서 member_tombstone에 삭제 시각을 남긴다.
+ * flush 중에는 영속성 컨텍스트를 사용할 수 없으므로 트랜잭션의 JDBC 커넥션으로 바로 저장한다.
+ * deleteAllInBatch 같은 JPQL 벌크 삭제는 기록되지 않는다.
+ *
+ * change_seq에는 트랜잭션의 임시 순번을 넣고 커밋 직전에 MemberChangeSequencer가 커밋 순번으로 바꾼다.
+ *
+ * tombstone-retention-days가 지난 기록은 지우고 지운 기록의 마지막 순번을 남긴다.
+ * 그 순번보다 앞선 토큰으로 요청하면 삭제를 놓칠 수 있으므로 변경 피드가 거절한다.(전체를 다시 받아야 한다.)
+ */
+@Component
+public class MemberTombstoneRecorder implements PostDeleteEventListener {
+
+    private static final String INSERT = "merge into member_tombstone (member_id, deleted_date, change_seq) key (member_id)" +
+            " values (?, ?, ?)";
+    private static final String PURGED_SEQ = "select max(change_seq) from member_tombstone where deleted_date < ?";
+    private static final String PURGE = "delete from member_tombstone where deleted_date < ?";
+
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditContextHolder auditContextHolder;
+    private final MemberChangeSequencer sequencer;
+    private final long retentionDays;
+
+    public MemberTombstoneRecorder(EntityManagerFactory emf, JdbcTemplate jdbcTemplate, AuditContextHolder auditContextHolder,
+                                   MemberChangeSequencer sequencer,
+                                   @Value("${datajpa.changes.tombstone-retention-days:30}") long retentionDays) {
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditContextHolder = auditContextHolder;
+        this.sequencer = sequencer;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            jdbcTemplate.update(INSERT, event.getId(), Timestamp.valueOf(auditContextHolder.current().getNow()),
+                    sequencer.pending());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 지울 기록의 마지막 순번을 먼저 남기고 지운다.(지우다 실패해도 토큰을 거절하는 쪽으로만 틀린다.)
+     */
+    @Scheduled(cron = "${datajpa.changes.tombstone-purge-cron:0 0 4 * * *}")
+    public void purge() {
+        Timestamp before = Timestamp.valueOf(auditContextHolder.current().getNow().minusDays(retentionDays));
+        Long purgedSeq = jdbcTemplate.queryForObject(PURGED_SEQ, Long.class, before);
+        if (purgedSeq == null) {
+            return;
+        }
+        sequencer.markPurged(purgedSeq);
+        jdbcTemplate.update(PURGE, before);
+    }
+}
@@ -0,0 +1,282 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.UsernameIndexStatsDto;
+import study.datajpa.entity.Member;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * username 존재 여부 인덱스(Bloom filter + username -> id 맵)
+ * 없는 username 조회(가입 시 중복 확인 등)를 DB까지 보내지 않기 위해 사용한다.
+ *
+ * 인덱스는 실제보다 많이 가지고 있을 수는 있어도(오탐, DB 조회로 이어질 뿐) 적게 가지면 안 된다.
+ * - 추가는 flush 시점(POST_INSERT, POST_UPDATE)에 바로 반영하고 삭제는 커밋 이후에 반영한다.
+ * - 벌크 연산이 실행되면 커밋될 때까지 인덱스를 쓰지 않고(stale) 커밋 후 DB에서 다시 만든다.
+ * - 재생성 중에 추가된 값, 아직 커밋되지 않은 추가(inFlight)는 새 인덱스에도 넣는다.
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.username-index.enabled", havingValue = "true")
+public class MemberUsernameIndex implements PostInsertEventListener, PostUpdateEventListener {
+
+    // 같은 username을 가진 Member가 여럿이면 id 대신 저장한다.
+    private static final long AMBIGUOUS = -1L;
+
+    private final EntityManagerFactory emf;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final Map<Long, String> inFlight = new ConcurrentHashMap<>();
+    private List<String[]> pending; // 재생성 중에 추가된 (username, id), this로 동기화
+
+    private final AtomicLong staleGeneration = new AtomicLong(1); // 최초 생성 전에는 stale
+    private volatile long builtGeneration;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public MemberUsernameIndex(EntityManagerFactory emf,
+                               @Value("${datajpa.username-index.expected-insertions:100000}") long expectedInsertions,
+                               @Value("${datajpa.username-index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.emf = emf;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        CommitListener commitListener = new CommitListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, commitListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, commitListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, commitListener);
+    }
+
+    /**
+     * false면 DB를 조회하지 않아도 되는(확실히 없는) username
+     * 인덱스가 stale이거나 현재 영속성 컨텍스트에 아직 flush되지 않은 변경이 있을 수 있으면 true
+     */
+    public boolean mightExist(String username) {
+        if (username == null || builtGeneration != staleGeneration.get() || hasManagedEntities()) {
+            return true;
+        }
+        lookups.increment();
+        if (!filter.mightContain(username)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (!ids.containsKey(username)) {
+            falsePositives.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // 트랜잭션 안의 벌크 연산 : 커밋(롤백)될 때까지 인덱스를 사용하지 않는다.
+    @EventListener
+    public void onBulkUpdate(MemberBulkUpdateEvent event) {
+        staleGeneration.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onBulkUpdateCompleted(MemberBulkUpdateEvent event) {
+        staleGeneration.incrementAndGet();
+        rebuild();
+    }
+
+    public void rebuild() {
+        long generation;
+        synchronized (this) {
+            generation = staleGeneration.get();
+            pending = new ArrayList<>();
+        }
+        List<Object[]> rows = loadUsernames();
+        synchronized (this) {
+            BloomFilter nextFilter = new BloomFilter(Math.max(expectedInsertions, rows.size() * 2L), falsePositiveRate);
+            Map<String, Long> nextIds = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+            for (Object[] row : rows) {
+                add(nextFilter, nextIds, (String) row[1], (Long) row[0]);
+            }
+            inFlight.forEach((id, username) -> add(nextFilter, nextIds, username, id));
+            for (String[] added : pending) {
+                add(nextFilter, nextIds, added[0], Long.valueOf(added[1]));
+            }
+            pending = null;
+            filter = nextFilter;
+            ids = nextIds;
+            builtGeneration = generation;
+            rebuilds.increment();
+        }
+    }
+
+    public UsernameIndexStatsDto stats() {
+        return new UsernameIndexStatsDto(ids.size(), lookups.sum(), bloomNegatives.sum() + falsePositives.sum(),
+                falsePositives.sum(), filter.expectedFalsePositiveRate(), rebuilds.sum(),
+                builtGeneration == staleGeneration.get());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            added(member.getUsername(), member.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            added(member.getUsername(), member.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private synchronized void added(String username, Long id) {
+        if (username == null) {
+            return;
+        }
+        inFlight.put(id, username);
+        add(filter, ids, username, id);
+        if (pending != null) {
+            pending.add(new String[]{username, String.valueOf(id)});
+        }
+    }
+
+    private synchronized void removed(String username, Long id) {
+        if (username != null) {
+            ids.remove(username, id);
+        }
+    }
+
+    private static void add(BloomFilter filter, Map<String, Long> ids, String username, Long id) {
+        if (username == null) {
+            return;
+        }
+        filter.put(username);
+        ids.merge(username, id, (current, added) -> current.equals(added) ? current : AMBIGUOUS);
+    }
+
+    private List<Object[]> loadUsernames() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select m.id, m.username from Member m", Object[].class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 현재 스레드의 영속성 컨텍스트에 엔티티가 있으면 flush되지 않은 persist나 username 변경이 있을 수 있다.
+     */
+    private boolean hasManagedEntities() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null) {
+            return false;
+        }
+        SessionImplementor session = holder.getEntityManager().unwrap(SessionImplementor.class);
+        return session.getPersistenceContext().getNumberOfManagedEntities() > 0;
+    }
+
+    /**
+     * 커밋 이후 : inFlight에서 빼고 삭제, username 변경을 반영한다.
+     * 커밋에 실패한 추가는 인덱스에 그대로 두고(오탐) 다음 재생성 때 정리된다.
+     */
+    private class CommitListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            inFlight.remove((Long) event.getId());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            inFlight.remove((Long) event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            Long id = (Long) event.getId();
+            inFlight.remove(id);
+            String oldUsername = oldUsername(event);
+            if (!Objects.equals(oldUsername, ((Member) event.getEntity()).getUsername())) {
+                removed(oldUsername, id);
+            }
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            inFlight.remove((Long) event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            removed(((Member) event.getEntity()).getUsername(), (Long) event.getId());
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return Member.class.isAssignableFrom(persister.getMappedClass());
+        }
+
+        private String oldUsername(PostUpdateEvent event) {
+            Object[] oldState = event.getOldState();
+            if (oldState == null) {
+                return null;
+            }
+            return (String) oldState[event.getPersister().getEntityMetamodel().getPropertyIndex("username")];
+        }
+    }
+}
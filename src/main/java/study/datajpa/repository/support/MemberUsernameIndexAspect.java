@@ -0,0 +1,45 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * username 단건/목록 조회에서 MemberUsernameIndex에 확실히 없는 username이면 쿼리 없이 빈 결과를 돌려준다.
+ * 반환 타입에 맞춰 Optional.empty(), 빈 List, null을 돌려준다.(Spring Data JPA가 결과가 없을 때 돌려주는 값과 같다.)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.username-index.enabled", havingValue = "true")
+public class MemberUsernameIndexAspect {
+
+    private final MemberUsernameIndex usernameIndex;
+
+    @Around("(execution(* study.datajpa.repository.MemberRepository.findOptionalByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.findMemberByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.findListByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberRepository.findByUsername(String))" +
+            " || execution(* study.datajpa.repository.MemberJpaRepository.findByUsername(String)))" +
+            " && args(username)")
+    public Object skipMissing(ProceedingJoinPoint joinPoint, String username) throws Throwable {
+        if (usernameIndex.mightExist(username)) {
+            return joinPoint.proceed();
+        }
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (returnType.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 낙관적 락(@Version)으로 username이 같은 Member를 수정한다.(findLockByUsername + PESSIMISTIC_WRITE 대체)
+ * 다른 트랜잭션이 먼저 수정해서 실패하면 backoff 후 새 트랜잭션에서 다시 조회, 수정한다.
+ *
+ * striped-lock을 켜면 같은 서버 안에서 같은 username을 수정하는 요청을 JVM 락으로 먼저 줄 세워
+ * DB까지 가서 충돌하고 재시도하는 일을 줄인다.(다른 서버와의 충돌은 여전히 @Version이 막는다.)
+ */
+@Slf4j
+@Component
+public class OptimisticMemberUpdater {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final StripedLocks locks;
+
+    public OptimisticMemberUpdater(MemberRepository memberRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${datajpa.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${datajpa.optimistic.backoff-ms:5}") long backoffMillis,
+                                   @Value("${datajpa.optimistic.max-backoff-ms:100}") long maxBackoffMillis,
+                                   @Value("${datajpa.optimistic.striped-lock.enabled:true}") boolean stripedLock,
+                                   @Value("${datajpa.optimistic.striped-lock.stripes:64}") int stripes) {
+        this.memberRepository = memberRepository;
+        // 재시도마다 새 영속성 컨텍스트에서 다시 조회해야 하므로 항상 새 트랜잭션을 사용한다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.locks = stripedLock ? new StripedLocks(stripes) : null;
+    }
+
+    /**
+     * @return 수정한 Member 수
+     * @throws OptimisticLockingFailureException maxAttempts번 모두 충돌한 경우
+     */
+    public int updateByUsername(String username, Consumer<Member> change) {
+        ReentrantLock lock = locks != null ? locks.get(username) : null;
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            return updateWithRetry(username, change);
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private int updateWithRetry(String username, Consumer<Member> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    List<Member> members = memberRepository.findListByUsername(username);
+                    members.forEach(change);
+                    return members.size();
+                });
+                return updated == null ? 0 : updated;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("optimistic lock conflict on {} (attempt {})", username, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    // 지수 backoff + jitter : 동시에 충돌한 요청이 같은 시점에 다시 충돌하지 않도록 흩어준다.
+    private void backoff(int attempt) {
+        long max = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while retrying optimistic update", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 시작 시 JPQL을 미리 컴파일해서 Hibernate 쿼리 플랜 캐시에 넣고 커넥션 풀을 채운다.(datajpa.warmup.enabled=true)
+ * - 레파지토리의 @Query(+ countQuery, Page 반환이면 count 쿼리)
+ * - 엔티티의 @NamedQuery
+ * - WarmupQuerySource 빈의 JPQL(MemberJpaRepository, TeamJpaRepository)
+ * 커넥션은 connections개를 동시에 가져와서 변환된 SQL을 prepare만 하고 돌려준다.(실행하지 않는다.)
+ *
+ * ApplicationRunner는 ApplicationReadyEvent 전에 실행되므로 warm-up이 끝나야 readiness가 ACCEPTING_TRAFFIC이 된다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.warmup.enabled", havingValue = "true")
+public class QueryWarmup implements ApplicationRunner {
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final int connections;
+
+    public QueryWarmup(ListableBeanFactory beanFactory, EntityManagerFactory emf, DataSource dataSource,
+                       @Value("${datajpa.warmup.connections:10}") int connections) {
+        this.beanFactory = beanFactory;
+        this.emf = emf;
+        this.dataSource = dataSource;
+        this.connections = connections;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        List<String> sqlStrings = new ArrayList<>();
+        Set<String> queries = queries();
+        int failed = 0;
+        for (String query : queries) {
+            long queryStart = System.nanoTime();
+            try {
+                HQLQueryPlan plan = sessionFactory.getQueryPlanCache()
+                        .getHQLQueryPlan(query, false, Collections.emptyMap());
+                Collections.addAll(sqlStrings, plan.getSqlStrings());
+                log.info("warm-up {} us : {}", (System.nanoTime() - queryStart) / 1000, query);
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("warm-up failed : {}", query, e);
+            }
+        }
+        long prepared = primeConnections(sqlStrings);
+        log.info("warm-up finished in {} ms : {} queries ({} failed), {} statements prepared",
+                (System.nanoTime() - start) / 1_000_000, queries.size(), failed, prepared);
+    }
+
+    private Set<String> queries() {
+        Set<String> queries = new LinkedHashSet<>();
+
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                // SpEL(:#{...})이 있는 쿼리는 Spring Data가 파라미터 이름을 바꿔 실행하므로 문자열이 달라진다.
+                if (query == null || query.nativeQuery() || !StringUtils.hasText(query.value())
+                        || query.value().contains("#{")) {
+                    continue;
+                }
+                queries.add(query.value());
+                if (StringUtils.hasText(query.countQuery())) {
+                    queries.add(query.countQuery());
+                } else if (Page.class.isAssignableFrom(method.getReturnType())) {
+                    queries.add(QueryUtils.createCountQueryFor(query.value()));
+                }
+            }
+        }
+
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            Class<?> javaType = entity.getJavaType();
+            NamedQuery namedQuery = javaType.getAnnotation(NamedQuery.class);
+            if (namedQuery != null) {
+                queries.add(namedQuery.query());
+            }
+            NamedQueries namedQueries = javaType.getAnnotation(NamedQueries.class);
+            if (namedQueries != null) {
+                for (NamedQuery each : namedQueries.value()) {
+                    queries.add(each.query());
+                }
+            }
+        }
+
+        for (WarmupQuerySource source : beanFactory.getBeansOfType(WarmupQuerySource.class).values()) {
+            queries.addAll(source.warmupQueries());
+        }
+        return queries;
+    }
+
+    /**
+     * 커넥션을 동시에 connections개 가져와서 풀을 채우고 커넥션마다 SQL을 prepare한다.
+     */
+    private long primeConnections(List<String> sqlStrings) {
+        List<Connection> opened = new ArrayList<>();
+        long prepared = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                for (String sql : sqlStrings) {
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        prepared++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("connection warm-up stopped after {} connections", opened.size(), e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("failed to close warm-up connection", e);
+                }
+            }
+        }
+        return prepared;
+    }
+}
@@ -0,0 +1,124 @@
+package study.datajpa.repository.support;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.RepositoryMethodStatsDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 레파지토리 메소드별 호출 수, 지연시간 분포, row 수, 에러 수
+ * 기록은 HdrHistogram Recorder(wait-free)와 LongAdder만 사용하므로 호출 스레드끼리 경쟁하지 않는다.
+ * interval-ms마다 지난 구간의 값을 스냅샷으로 옮기고 초기화한다.(/stats/repository는 마지막 구간을 보여준다.)
+ */
+@Component
+public class RepositoryMetrics {
+
+    private static final long NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private volatile List<RepositoryMethodStatsDto> lastInterval = new ArrayList<>();
+    private volatile long intervalStart = System.currentTimeMillis();
+
+    public MethodMetrics method(String name) {
+        return methods.computeIfAbsent(name, MethodMetrics::new);
+    }
+
+    /**
+     * 마지막 구간의 메소드별 통계(p99 내림차순)
+     */
+    public List<RepositoryMethodStatsDto> lastInterval() {
+        return lastInterval;
+    }
+
+    @Scheduled(fixedDelayString = "${datajpa.repository-metrics.interval-ms:60000}")
+    public void rollInterval() {
+        long start = intervalStart;
+        long end = System.currentTimeMillis();
+        List<RepositoryMethodStatsDto> result = new ArrayList<>();
+        for (MethodMetrics metrics : methods.values()) {
+            RepositoryMethodStatsDto stats = metrics.snapshot(start, end);
+            if (stats.getCount() > 0) {
+                result.add(stats);
+            }
+        }
+        result.sort(Comparator.comparingLong(RepositoryMethodStatsDto::getP99Micros).reversed());
+        lastInterval = result;
+        intervalStart = end;
+    }
+
+    /**
+     * 반환값으로 센 row 수 : 컬렉션 크기, 페이지 내용 수, Optional 유무
+     * count(), 벌크 연산 결과 같은 스칼라 값은 값과 관계없이 1 row(결과 한 행)로 센다.
+     * 알 수 없으면(Stream 등) 0
+     */
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof java.util.stream.BaseStream) {
+            return 0;
+        }
+        return 1;
+    }
+
+    public static class MethodMetrics {
+
+        private final String name;
+        private final Recorder recorder = new Recorder(2);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private Histogram recycled;
+
+        private MethodMetrics(String name) {
+            this.name = name;
+        }
+
+        public void record(long elapsedNanos, long rowCount, boolean error) {
+            recorder.recordValue(Math.max(0, elapsedNanos));
+            if (error) {
+                errors.increment();
+            } else {
+                rows.add(rowCount);
+            }
+        }
+
+        // rollInterval()에서만 호출된다.(단일 스레드)
+        private RepositoryMethodStatsDto snapshot(long start, long end) {
+            Histogram histogram = recorder.getIntervalHistogram(recycled);
+            recycled = histogram;
+            return new RepositoryMethodStatsDto(name, start, end,
+                    histogram.getTotalCount(), errors.sumThenReset(), rows.sumThenReset(),
+                    micros(histogram.getMean()),
+                    micros(histogram.getValueAtPercentile(50)),
+                    micros(histogram.getValueAtPercentile(90)),
+                    micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)),
+                    micros(histogram.getMaxValue()));
+        }
+
+        private static long micros(double nanos) {
+            return Math.round(nanos / NANOS_PER_MICRO);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 모든 Spring Data 레파지토리 호출(메소드 이름 쿼리, @Query, EntityGraph, 사용자 정의 구현 포함)을 RepositoryMetrics에 기록한다.
+ * 메소드 이름은 "MemberRepository.findByUsername(String,Pageable)" 형식이고 처음 호출될 때 한 번만 만든다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.repository-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetricsAspect {
+
+    private final RepositoryMetrics repositoryMetrics;
+    private final Map<Class<?>, Map<Method, RepositoryMetrics.MethodMetrics>> cache = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryMetrics.MethodMetrics metrics = metrics(joinPoint);
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            metrics.record(System.nanoTime() - start, RepositoryMetrics.rows(result), false);
+            return result;
+        } catch (Throwable e) {
+            metrics.record(System.nanoTime() - start, 0, true);
+            throw e;
+        }
+    }
+
+    private RepositoryMetrics.MethodMetrics metrics(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return cache.computeIfAbsent(target.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> repositoryMetrics.method(name(target, m)));
+    }
+
+    private static String name(Object target, Method method) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+        StringBuilder name = new StringBuilder()
+                .append(interfaces.length > 0 ? interfaces[0].getSimpleName() : target.getClass().getSimpleName())
+                .append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(parameterTypes[i].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.repository.support;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 키 해시로 고른 락(stripe) 묶음
+ * 키마다 락을 만들지 않으므로 메모리가 일정하고 서로 다른 키가 같은 락을 공유할 수 있다.
+ */
+class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock get(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return locks[hash & (locks.length - 1)];
+    }
+}
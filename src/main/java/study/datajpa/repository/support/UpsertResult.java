@@ -0,0 +1,18 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class UpsertResult {
+
+    private final long insertedCount;
+    // 이미 있어서 insert하지 않은 수(기존 행은 수정하지 않는다.)
+    private final long existingCount;
+
+    public UpsertResult(long insertedCount, long existingCount) {
+        this.insertedCount = insertedCount;
+        this.existingCount = existingCount;
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpa.repository.support;
+
+import java.util.List;
+
+/**
+ * 시작 시 미리 컴파일할 JPQL 문자열(QueryWarmup)
+ * 실행할 때와 같은 문자열이어야 쿼리 플랜 캐시에서 찾으므로 상수로 두고 실행 코드와 같이 사용한다.
+ */
+public interface WarmupQuerySource {
+
+    List<String> warmupQueries();
+}
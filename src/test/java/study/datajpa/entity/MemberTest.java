@@ -76,4 +76,22 @@ class MemberTest {
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
 
+    @Test
+    public void auditListener() {
+        // given
+        Member member1 = new Member("audit1");
+        Member member2 = new Member("audit2");
+
+        // when : 같은 트랜잭션, 같은 flush에서 저장한 엔티티는 감사 정보를 공유한다.
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        em.flush();
+
+        // then
+        assertNotNull(member1.getCreatedBy());
+        assertEquals(member1.getCreatedBy(), member2.getCreatedBy());
+        assertEquals(member1.getCreatedDate(), member2.getCreatedDate());
+        assertEquals(member1.getCreatedDate(), member1.getLastModifiedDate());
+    }
+
 }
\ No newline at end of file
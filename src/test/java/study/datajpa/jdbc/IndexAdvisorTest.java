@@ -0,0 +1,45 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.dto.IndexAdviceDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.index-advisor.enabled=true")
+class IndexAdvisorTest {
+
+    static final String ITEM_BY_CREATED_DATE = "select i.id from item i where i.created_date > timestamp '2000-01-01 00:00:00'";
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired SqlTelemetry sqlTelemetry;
+    @Autowired IndexAdvisor indexAdvisor;
+
+    @Test
+    public void recommendIndexForTableScan() {
+        // given : item.created_date에는 인덱스가 없다.
+        sqlTelemetry.clear();
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.queryForList(ITEM_BY_CREATED_DATE, String.class);
+        }
+
+        // when
+        IndexAdviceDto advice = indexAdvisor.analyze(10, true).stream()
+                .filter(a -> a.getFingerprint().equals(SqlFingerprints.of(ITEM_BY_CREATED_DATE)))
+                .findFirst().get();
+
+        // then
+        assertThat(advice.getCount()).isEqualTo(3);
+        assertThat(advice.getScannedTables()).containsExactly("item");
+        assertThat(advice.getDdl()).isEqualTo("create index idx_item_created_date on item (created_date)");
+        assertThat(advice.getBeforeMicros()).isNotNull();
+        assertThat(advice.getAfterMicros()).isNotNull();
+        // 측정용 인덱스는 임시 이름으로 만들고 지운다.
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where index_name = 'IDX_ITEM_CREATED_DATE'"
+                        + " or index_name like 'TMP_INDEX_ADVISOR_%'", Long.class))
+                .isZero();
+    }
+}
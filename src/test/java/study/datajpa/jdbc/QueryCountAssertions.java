@@ -0,0 +1,41 @@
+package study.datajpa.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트에서 실행된 SQL 수 검증
+ * resetQueryCount() 이후 현재 스레드에서 실행된 SQL을 센다.
+ * flush 전에 검증하면 아직 나가지 않은 insert/update는 세지 않으므로 필요하면 먼저 em.flush()를 호출한다.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static void resetQueryCount() {
+        QueryCountHolder.clear();
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertCount(QueryType.SELECT, expected);
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount(QueryType.INSERT, expected);
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount(QueryType.UPDATE, expected);
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount(QueryType.DELETE, expected);
+    }
+
+    private static void assertCount(QueryType type, int expected) {
+        QueryCount count = QueryCountHolder.get();
+        assertThat(count.get(type))
+                .as("%s count, executed statements : %s", type, count.getStatements())
+                .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.repository.MemberAsyncRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 조회는 queryExecutor 스레드의 별도 트랜잭션에서 실행되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+@SpringBootTest
+class QueryCountPropagationTest {
+
+    @Autowired MemberAsyncRepository memberAsyncRepository;
+
+    @Test
+    public void countAsyncQueriesOnCallerThread() {
+        // given
+        QueryCountAssertions.resetQueryCount();
+
+        // when : queryExecutor 스레드에서 조회한다.
+        memberAsyncRepository.findMemberDtoPage(PageRequest.of(0, 5)).join();
+
+        // then : 작업을 넣은 스레드(테스트)의 카운트로 센다.
+        assertThat(QueryCountHolder.get().getSelect()).isPositive();
+    }
+}
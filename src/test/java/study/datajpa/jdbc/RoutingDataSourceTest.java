@@ -0,0 +1,79 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 in-memory DB 세 개를 primary, replica로 사용한다. 복제 지연은 replica의 replica_lag 테이블 값으로 흉내낸다.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.routing.enabled=true",
+        "datajpa.datasource.routing.replicas[0].url=" + RoutingDataSourceTest.REPLICA1_URL,
+        "datajpa.datasource.routing.replicas[0].username=sa",
+        "datajpa.datasource.routing.replicas[1].url=" + RoutingDataSourceTest.REPLICA2_URL,
+        "datajpa.datasource.routing.replicas[1].username=sa",
+        "datajpa.datasource.routing.lag-query=select lag_ms from replica_lag",
+        "datajpa.datasource.routing.max-lag-ms=1000",
+        "datajpa.datasource.routing.probe-interval-ms=600000"})
+class RoutingDataSourceTest {
+
+    static final String REPLICA1_URL = "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA2_URL = "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1";
+    static final String DATABASE = "select database()";
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaRouter replicaRouter;
+
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        setLag(REPLICA1_URL, 0);
+        setLag(REPLICA2_URL, 0);
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        assertThat(readOnly.execute(status -> jdbcTemplate.queryForObject(DATABASE, String.class)))
+                .isIn("REPLICA1", "REPLICA2");
+        assertThat(readWrite.execute(status -> jdbcTemplate.queryForObject(DATABASE, String.class)))
+                .isEqualTo("PRIMARY");
+        assertThat(jdbcTemplate.queryForObject(DATABASE, String.class)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void laggingReplicaIsSkipped() {
+        // replica2만 지연
+        setLag(REPLICA2_URL, 5000);
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnly.execute(status -> jdbcTemplate.queryForObject(DATABASE, String.class)))
+                    .isEqualTo("REPLICA1");
+        }
+
+        // 모두 지연되면 primary에서 읽는다.
+        setLag(REPLICA1_URL, 5000);
+        assertThat(readOnly.execute(status -> jdbcTemplate.queryForObject(DATABASE, String.class)))
+                .isEqualTo("PRIMARY");
+        assertThat(replicaRouter.stats().get(0).getFallbackCount()).isPositive();
+    }
+
+    private void setLag(String url, long lagMillis) {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        replica.execute("create table if not exists replica_lag(lag_ms bigint)");
+        replica.update("delete from replica_lag");
+        replica.update("insert into replica_lag values (?)", lagMillis);
+        replicaRouter.probe();
+    }
+}
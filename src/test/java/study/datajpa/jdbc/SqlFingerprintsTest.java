@@ -0,0 +1,31 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintsTest {
+
+    @Test
+    public void literalsAndWhitespace() {
+        String a = SqlFingerprints.of("select member0_.member_id from member member0_\n    where member0_.username='it''s' and member0_.age>10");
+        String b = SqlFingerprints.of("SELECT member0_.member_id FROM member member0_ WHERE member0_.username = 'AAA' AND member0_.age > 20;");
+
+        assertThat(a).isEqualTo("select member0_.member_id from member member0_ where member0_.username=? and member0_.age>?");
+        assertThat(SqlFingerprints.of(b)).isEqualTo(b);
+        assertThat(b).doesNotContain("aaa", "20");
+    }
+
+    @Test
+    public void inListLength() {
+        assertThat(SqlFingerprints.of("select * from member where username in (?, ?, ?)"))
+                .isEqualTo(SqlFingerprints.of("select * from member where username in ('a')"))
+                .isEqualTo("select * from member where username in (?...)");
+    }
+
+    @Test
+    public void comments() {
+        assertThat(SqlFingerprints.of("/* select generatedAlias0 from Member */ select 1 -- trailing"))
+                .isEqualTo("select ?");
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.dto.SqlStatementStatsDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.sql-telemetry.max-fingerprints=3")
+class SqlTelemetryLimitTest {
+
+    @Autowired SqlTelemetry sqlTelemetry;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void overflowGoesToOther() throws Exception {
+        // given
+        sqlTelemetry.clear();
+        int threads = 8;
+        int statementsPerThread = 20;
+
+        // when : 여러 스레드가 동시에 처음 보는 문장을 실행한다.
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < statementsPerThread; i++) {
+                    jdbcTemplate.queryForObject("select 1 as c" + thread + "_" + i, Integer.class);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then : 문장은 max-fingerprints개까지만 따로 세고 나머지는 other 하나에 합친다.
+        List<SqlStatementStatsDto> top = sqlTelemetry.top(Integer.MAX_VALUE);
+        assertThat(top.stream().filter(stats -> !stats.getFingerprint().equals(SqlTelemetry.OTHER))).hasSize(3);
+        assertThat(top).filteredOn(stats -> stats.getFingerprint().equals(SqlTelemetry.OTHER))
+                .singleElement()
+                .satisfies(other -> assertThat(other.getCount()).isGreaterThanOrEqualTo(threads * statementsPerThread - 3));
+    }
+}
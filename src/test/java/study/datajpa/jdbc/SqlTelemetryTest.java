@@ -0,0 +1,45 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.SqlStatementStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SqlTelemetryTest {
+
+    @Autowired SqlTelemetry sqlTelemetry;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void aggregateByFingerprint() {
+        // given
+        String username = "telemetry-" + UUID.randomUUID();
+        memberRepository.save(new Member(username, 10));
+        memberRepository.save(new Member(username, 20));
+        sqlTelemetry.clear();
+
+        // when : 파라미터가 달라도 같은 문장으로 센다.
+        memberRepository.findByUsernameAndAgeGreaterThan(username, 5);
+        memberRepository.findByUsernameAndAgeGreaterThan(username, 15);
+        memberRepository.findByUsernameAndAgeGreaterThan("none-" + username, 15);
+
+        // then
+        List<SqlStatementStatsDto> top = sqlTelemetry.top(10);
+        assertThat(top).hasSize(1);
+        SqlStatementStatsDto stats = top.get(0);
+        assertThat(stats.getType()).isEqualTo(QueryType.SELECT);
+        assertThat(stats.getFingerprint()).contains("from member").contains("username=?");
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getRows()).isEqualTo(3); // 2 + 1 + 0
+        assertThat(stats.getErrorCount()).isZero();
+        assertThat(stats.getMaxMicros()).isGreaterThanOrEqualTo(stats.getAvgMicros());
+    }
+}
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
+import study.datajpa.repository.support.UpsertResult;
+
+import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,4 +28,31 @@ class ItemRepositoryTest {
          */
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void upsertAll() {
+        String prefix = UUID.randomUUID().toString();
+        Item itemA = new Item(prefix + "-itemA");
+        Item itemB = new Item(prefix + "-itemB");
+        Item itemC = new Item(prefix + "-itemC");
+        itemRepository.upsertAll(List.of(itemA));
+
+        assertFalse(itemA.isNew());
+
+        // itemA는 이미 있으므로 insert하지 않는다.
+        Item existingA = new Item(itemA.getId());
+        UpsertResult result = itemRepository.upsertAll(List.of(existingA, itemB, itemC));
+
+        assertEquals(2, result.getInsertedCount());
+        assertEquals(1, result.getExistingCount());
+        assertFalse(itemB.isNew());
+        assertTrue(existingA.isNew()); // 이미 있던 행은 등록시간을 모른다.
+
+        // 새로 insert한 객체를 save()하면 persist(중복 키)가 아니라 merge한다.
+        itemRepository.save(itemB);
+
+        Item findItem = itemRepository.findById(itemB.getId()).get();
+        assertNotNull(findItem.getCreatedDate());
+        assertFalse(findItem.isNew());
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.BatchLoaderStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.MemberBatchLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 조회는 queryExecutor 스레드의 별도 트랜잭션에서 실행되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+@SpringBootTest(properties = {
+        "datajpa.member-loader.window-us=200000",
+        "datajpa.member-loader.max-batch-size=4"})
+class MemberBatchLoaderTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberBatchLoader memberBatchLoader;
+
+    @Test
+    public void coalesce() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            members.add(memberRepository.save(new Member("loader" + i, i)));
+        }
+        BatchLoaderStatsDto before = memberBatchLoader.stats();
+
+        // when : 같은 id 중복 + 없는 id, 4번째 id에서 배치가 가득 차서 바로 조회한다.
+        CompletableFuture<Optional<Member>> first = memberBatchLoader.load(members.get(0).getId());
+        CompletableFuture<Optional<Member>> duplicate = memberBatchLoader.load(members.get(0).getId());
+        CompletableFuture<Optional<Member>> second = memberBatchLoader.load(members.get(1).getId());
+        CompletableFuture<Optional<Member>> third = memberBatchLoader.load(members.get(2).getId());
+        CompletableFuture<Optional<Member>> missing = memberBatchLoader.load(-1L);
+
+        // then
+        assertThat(first.join()).get().extracting(Member::getUsername).isEqualTo("loader0");
+        assertThat(duplicate.join()).get().extracting(Member::getUsername).isEqualTo("loader0");
+        assertThat(second.join()).get().extracting(Member::getUsername).isEqualTo("loader1");
+        assertThat(third.join()).get().extracting(Member::getUsername).isEqualTo("loader2");
+        assertThat(missing.join()).isEmpty();
+
+        BatchLoaderStatsDto after = memberBatchLoader.stats();
+        assertThat(after.getBatchCount() - before.getBatchCount()).isEqualTo(1);
+        assertThat(after.getKeyCount() - before.getKeyCount()).isEqualTo(4);
+    }
+}
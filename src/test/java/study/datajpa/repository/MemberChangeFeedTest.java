@@ -0,0 +1,157 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.ChangeFeed;
+import study.datajpa.dto.ChangePosition;
+import study.datajpa.dto.MemberChange;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.ChangeFeedExpiredException;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.MemberChangeSequencer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// 삭제 기록(MemberTombstoneRecorder), 커밋 순번(MemberChangeSequencer)이 커밋되어야 하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+@SpringBootTest
+class MemberChangeFeedTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberChangeSequencer changeSequencer;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void changesAfterToken() {
+        // given : 지금까지의 변경은 모두 받은 상태
+        String token = memberRepository.findChangesSince(LocalDateTime.now(), 100).getToken();
+
+        Member kept = memberRepository.save(new Member("changeKept", 9100));
+        Member removed = memberRepository.save(new Member("changeRemoved", 9100));
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> memberJpaRepository.delete(memberJpaRepository.findById(removed.getId()).get()));
+
+        // when : 한 건씩 이어서 받는다.
+        ChangeFeed first = memberRepository.findChangesAfter(ChangePosition.decode(token), 1);
+        ChangeFeed second = memberRepository.findChangesAfter(ChangePosition.decode(first.getToken()), 1);
+        ChangeFeed third = memberRepository.findChangesAfter(ChangePosition.decode(second.getToken()), 1);
+
+        // then : 삭제된 회원은 등록 이력 없이 삭제 기록만 나온다.
+        assertThat(first.getChanges()).extracting(MemberChange::getId, MemberChange::getUsername, MemberChange::isDeleted)
+                .containsExactly(tuple(kept.getId(), "changeKept", false));
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getChanges()).extracting(MemberChange::getId, MemberChange::isDeleted)
+                .containsExactly(tuple(removed.getId(), true));
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(third.getChanges()).isEmpty();
+        assertThat(third.isHasMore()).isFalse();
+
+        // 벌크 연산도 커밋 순번을 받으므로 다음 조회에 나온다.
+        memberRepository.bulkAgePlusChunked(9100, ChunkedUpdateOptions.defaults());
+        ChangeFeed afterBulk = memberRepository.findChangesAfter(ChangePosition.decode(third.getToken()), 100);
+        assertThat(afterBulk.getChanges()).extracting(MemberChange::getId, MemberChange::getAge)
+                .containsExactly(tuple(kept.getId(), 9101));
+        assertThat(afterBulk.isHasMore()).isFalse();
+    }
+
+    @Test
+    public void lateCommitIsNotSkipped() throws Exception {
+        // given
+        String token = memberRepository.findChangesSince(LocalDateTime.now(), 100).getToken();
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when : 먼저 flush(수정 시각이 먼저 정해짐)한 트랜잭션이 늦게 커밋된다.
+        Future<Member> slow = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = memberRepository.saveAndFlush(new Member("changeSlow", 8200));
+            flushed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return member;
+        }));
+        flushed.await(10, TimeUnit.SECONDS);
+        Member fast = memberRepository.save(new Member("changeFast", 8200));
+        ChangeFeed first = memberRepository.findChangesAfter(ChangePosition.decode(token), 100);
+
+        release.countDown();
+        Member late = slow.get();
+        executor.shutdown();
+        ChangeFeed second = memberRepository.findChangesAfter(ChangePosition.decode(first.getToken()), 100);
+
+        // then : 토큰이 먼저 커밋된 변경을 지나갔어도 늦게 커밋된 변경을 다음 조회에서 받는다.
+        assertThat(first.getChanges()).extracting(MemberChange::getId).containsExactly(fast.getId());
+        assertThat(second.getChanges()).extracting(MemberChange::getId).containsExactly(late.getId());
+    }
+
+    @Test
+    public void listVersionFollowsCommitOrder() throws Exception {
+        // given : 먼저 시작한(수정 시각이 이른) 트랜잭션이 늦게 커밋된다.
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Member> slow = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = memberRepository.saveAndFlush(new Member("versionSlow", 8400));
+            flushed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return member;
+        }));
+        flushed.await(10, TimeUnit.SECONDS);
+        memberRepository.save(new Member("versionFast", 8400));
+        String cached = memberRepository.findMemberListVersion().eTag("members");
+
+        // when
+        release.countDown();
+        Member late = slow.get();
+        executor.shutdown();
+
+        // then : 늦은 커밋도 목록 버전을 바꾼다.
+        String afterLateCommit = memberRepository.findMemberListVersion().eTag("members");
+        assertThat(afterLateCommit).isNotEqualTo(cached);
+
+        // 삭제, 팀 변경도 목록 버전을 바꾼다.
+        memberRepository.deleteById(late.getId());
+        String afterDelete = memberRepository.findMemberListVersion().eTag("members");
+        assertThat(afterDelete).isNotEqualTo(afterLateCommit);
+        teamRepository.save(new Team("versionTeam"));
+        assertThat(memberRepository.findMemberListVersion().eTag("members")).isNotEqualTo(afterDelete);
+    }
+
+    @Test
+    public void expiredPosition() {
+        // given : 이 토큰 이후의 삭제 기록이 보관 기간이 지나 지워졌다.
+        ChangePosition stale = ChangePosition.decode(memberRepository.findChangesSince(LocalDateTime.now(), 100).getToken());
+        Member removed = memberRepository.save(new Member("changeExpired", 8300));
+        memberRepository.deleteById(removed.getId());
+        changeSequencer.markPurged(changeSequencer.committed());
+
+        // then : 삭제를 놓칠 수 있는 위치는 거절하고 전체를 다시 받도록 한다.
+        assertThatThrownBy(() -> memberRepository.findChangesAfter(stale, 100))
+                .isInstanceOf(ChangeFeedExpiredException.class);
+        assertThatThrownBy(() -> memberRepository.findChangesSince(LocalDateTime.now().minusDays(31), 100))
+                .isInstanceOf(ChangeFeedExpiredException.class);
+        ChangeFeed resynced = memberRepository.findChangesSince(LocalDateTime.now(), 100);
+        assertThat(resynced.getChanges()).isEmpty();
+    }
+}
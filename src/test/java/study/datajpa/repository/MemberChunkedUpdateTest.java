@@ -0,0 +1,80 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.ChunkProgress;
+import study.datajpa.repository.support.ChunkedUpdateCheckpoint;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.ChunkedUpdateResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 청크마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+@SpringBootTest
+class MemberChunkedUpdateTest {
+
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void bulkAgePlusChunked() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("chunk" + i, 1000 + i));
+        }
+        memberRepository.saveAllBatched(members, 100);
+
+        // when
+        List<ChunkProgress> progress = Collections.synchronizedList(new ArrayList<>());
+        ChunkedUpdateResult result = memberRepository.bulkAgePlusChunked(1005, ChunkedUpdateOptions.builder()
+                .chunkSize(3)
+                .parallelism(2)
+                .progressListener(progress::add)
+                .build());
+
+        // then
+        assertThat(result.getUpdatedCount()).isGreaterThanOrEqualTo(5);
+        assertThat(progress).hasSize(result.getChunkCount());
+        assertThat(memberRepository.findById(members.get(4).getId()).get().getAge()).isEqualTo(1004);
+        assertThat(memberRepository.findById(members.get(5).getId()).get().getAge()).isEqualTo(1006);
+        assertThat(memberRepository.findById(members.get(9).getId()).get().getAge()).isEqualTo(1010);
+    }
+
+    @Test
+    public void resumeFromCheckpoint() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            members.add(new Member("resume" + i, 2000));
+        }
+        memberRepository.saveAllBatched(members, 100);
+        long resumeId = members.get(2).getId();
+
+        // when : resumeId 이전 청크는 이미 처리된 것으로 보고 건너뛴다.(chunkSize 1)
+        memberRepository.bulkAgePlusChunked(2000, ChunkedUpdateOptions.builder()
+                .resumeFrom(new ChunkedUpdateCheckpoint(resumeId, 1, Collections.emptySet()))
+                .build());
+
+        // then
+        assertThat(memberRepository.findById(members.get(1).getId()).get().getAge()).isEqualTo(2000);
+        assertThat(memberRepository.findById(members.get(2).getId()).get().getAge()).isEqualTo(2001);
+        assertThat(memberRepository.findById(members.get(3).getId()).get().getAge()).isEqualTo(2001);
+    }
+
+    @Test
+    public void parallelismAboveConnectionPool() {
+        // 청크마다 커넥션을 하나씩 사용하므로 커넥션 풀(hikari 기본 10개)보다 많이 동시에 실행할 수 없다.
+        assertThatThrownBy(() -> memberRepository.bulkAgePlusChunked(3000, ChunkedUpdateOptions.builder()
+                .parallelism(11)
+                .build()))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasStackTraceContaining("connection pool size");
+    }
+}
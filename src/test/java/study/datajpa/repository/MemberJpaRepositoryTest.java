@@ -5,8 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -120,4 +122,57 @@ class MemberJpaRepositoryTest {
 
         assertThat(resultCnt).isEqualTo(4);
     }
+
+    @Test
+    public void saveAllBatched() {
+        // given
+        long before = memberJpaRepository.count();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, i));
+        }
+
+        // when
+        int savedCnt = memberJpaRepository.saveAllBatched(members, 100);
+
+        // then
+        assertThat(savedCnt).isEqualTo(250);
+        assertThat(members).allMatch(m -> m.getId() != null);
+        assertThat(memberJpaRepository.count()).isEqualTo(before + 250);
+    }
+
+    @Test
+    public void keysetPaging() {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            memberJpaRepository.save(new Member("keyset" + i, 77));
+        }
+
+        // when
+        List<Member> page1 = memberJpaRepository.findByAgeAfter(77, null, null, 3);
+        Member last = page1.get(page1.size() - 1);
+        List<Member> page2 = memberJpaRepository.findByAgeAfter(77, last.getUsername(), last.getId(), 3);
+
+        // then : offset 페이징과 같은 순서로 이어진다.
+        assertThat(page1).extracting(Member::getUsername).containsExactly("keyset5", "keyset4", "keyset3");
+        assertThat(page2).extracting(Member::getUsername).containsExactly("keyset2", "keyset1");
+        assertThat(page1).containsExactlyElementsOf(memberJpaRepository.findByPage(77, 0, 3));
+    }
+
+    @Test
+    public void forEachMemberDto() {
+        // given
+        long total = memberJpaRepository.count() + 3;
+        memberJpaRepository.save(new Member("stream1", 10));
+        memberJpaRepository.save(new Member("stream2", 20));
+        memberJpaRepository.save(new Member("stream3", 30));
+
+        // when
+        List<MemberDto> result = new ArrayList<>();
+        long streamedCnt = memberJpaRepository.forEachMemberDto(2, result::add);
+
+        // then
+        assertThat(streamedCnt).isEqualTo(total);
+        assertThat(result).extracting(MemberDto::getUsername).contains("stream1", "stream2", "stream3");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.OptimisticMemberUpdater;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 여러 스레드가 각자 커밋하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+// striped lock을 끄고 DB의 @Version 충돌 + 재시도만으로 수정이 유실되지 않는지 확인한다.
+@SpringBootTest(properties = {
+        "datajpa.optimistic.striped-lock.enabled=false",
+        "datajpa.optimistic.max-attempts=100"})
+class MemberOptimisticUpdateTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired OptimisticMemberUpdater updater;
+
+    @Test
+    public void version() {
+        Member member = memberRepository.save(new Member("version-" + UUID.randomUUID(), 10));
+        assertThat(member.getVersion()).isEqualTo(0L);
+
+        updater.updateByUsername(member.getUsername(), m -> m.setAge(20));
+
+        assertThat(memberRepository.findById(member.getId()).get().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        // given
+        String username = "optimistic-" + UUID.randomUUID();
+        Member member = memberRepository.save(new Member(username, 0));
+        int threads = 8;
+        int updatesPerThread = 25;
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < updatesPerThread; j++) {
+                    updater.updateByUsername(username, m -> m.setAge(m.getAge() + 1));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(threads * updatesPerThread);
+        assertThat(findMember.getVersion()).isEqualTo((long) threads * updatesPerThread);
+    }
+}
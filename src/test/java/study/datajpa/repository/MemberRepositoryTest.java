@@ -1,6 +1,9 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assert;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,16 +14,25 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.CacheRegions;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.jdbc.QueryCountHolder;
+import study.datajpa.repository.support.InListStrategy;
+import study.datajpa.repository.support.InvalidQueryParameterException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
+import static study.datajpa.jdbc.QueryCountAssertions.assertSelectCount;
+import static study.datajpa.jdbc.QueryCountAssertions.resetQueryCount;
 
 // Jnit5부터는 RunWith(SpringRunner.class)를 적어주지 않아도 된다.
 @SpringBootTest
@@ -293,4 +305,175 @@ class MemberRepositoryTest {
         List<Member> member = memberQueryRepository.findAllMembers();
         System.out.println("member = " + member);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void secondLevelCache() {
+        // given
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        Member member = memberRepository.save(new Member("cacheMember", 10, team));
+        em.flush();
+        em.clear();
+        teamRepository.findById(team.getId()); // DB 조회 후 2차 캐시에 저장
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long hitCount = statistics.getCacheRegionStatistics(CacheRegions.TEAM).getHitCount();
+
+        // when : 영속성 컨텍스트를 비워도 DB가 아닌 2차 캐시에서 찾는다.
+        Team findTeam = teamRepository.findById(team.getId()).get();
+
+        // then
+        assertThat(findTeam.getName()).isEqualTo("cacheTeam");
+        assertThat(statistics.getCacheRegionStatistics(CacheRegions.TEAM).getHitCount()).isEqualTo(hitCount + 1);
+
+        // 벌크 연산은 member 영역을 무효화하므로 캐시된 예전 나이가 조회되지 않는다.
+        memberRepository.findById(member.getId());
+        memberRepository.bulkAgePlus(10);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(11);
+    }
+
+    @Test
+    public void pagingWithCachedCount() {
+        // given
+        memberRepository.save(new Member("countA", 55));
+        memberRepository.save(new Member("countB", 55));
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        Page<Member> page = memberRepository.findPageByAge(55, pageRequest);
+        memberRepository.save(new Member("countC", 55)); // Member 저장 시 캐시된 count가 무효화된다.
+        Page<Member> page2 = memberRepository.findPageByAge(55, pageRequest);
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page2.getTotalElements()).isEqualTo(3);
+        assertThat(page2.getContent().get(0).getUsername()).isEqualTo("countC");
+    }
+
+    @Test
+    public void findMemberDtoPage() {
+        // given
+        Team teamA = teamRepository.save(new Team("dtoTeamA"));
+        Team teamB = teamRepository.save(new Team("dtoTeamB"));
+        memberRepository.save(new Member("dtoMember1", 10, teamB));
+        memberRepository.save(new Member("dtoMember2", 10, teamA));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "id")));
+
+        // then : team 이름까지 채워지고 영속성 컨텍스트에는 아무것도 올라가지 않는다.
+        assertThat(page.getContent()).extracting(MemberDto::getTeamName).contains("dtoTeamA", "dtoTeamB");
+        assertThat(em.unwrap(org.hibernate.Session.class).getStatistics().getEntityCount()).isZero();
+        assertThatThrownBy(() -> memberRepository.findMemberDtoPage(PageRequest.of(0, 10, Sort.by("createdBy"))))
+                .isInstanceOf(InvalidQueryParameterException.class);
+    }
+
+    @Test
+    public void fetchJoinQueryCount() {
+        // given
+        Team teamA = teamRepository.save(new Team("countTeamA"));
+        Team teamB = teamRepository.save(new Team("countTeamB"));
+        memberRepository.save(new Member("countMember1", 10, teamA));
+        memberRepository.save(new Member("countMember2", 10, teamB));
+        em.flush();
+        em.clear();
+
+        // when : fetch join, @EntityGraph는 team까지 한 번의 select로 조회한다.
+        resetQueryCount();
+        memberRepository.findMemberFetchJoin().stream()
+                .filter(m -> m.getTeam() != null)
+                .forEach(m -> m.getTeam().getName());
+        assertSelectCount(1);
+
+        em.clear();
+        resetQueryCount();
+        memberRepository.findMemberEntityGraph().stream()
+                .filter(m -> m.getTeam() != null)
+                .forEach(m -> m.getTeam().getName());
+        assertSelectCount(1);
+    }
+
+    @Test
+    public void bulkUpdateAdvancesLastModifiedDate() throws InterruptedException {
+        // given
+        Member member = memberRepository.save(new Member("etagMember", 7000));
+        em.flush();
+        LocalDateTime modifiedBefore = memberRepository.findLastModifiedDateById(member.getId()).get();
+        Thread.sleep(5); // 같은 시각이 나오지 않도록
+
+        // when : 벌크 연산은 AuditListener를 거치지 않는다.
+        memberRepository.bulkAgePlus(7000);
+
+        // then : 수정 시각이 바뀌므로 한 회원의 ETag도 바뀐다.(목록 ETag는 커밋 순번 : MemberChangeFeedTest)
+        LocalDateTime modifiedAfter = memberRepository.findLastModifiedDateById(member.getId()).get();
+        assertThat(modifiedAfter).isAfter(modifiedBefore);
+    }
+
+    @Test
+    public void findAllExpanded() {
+        // given
+        Team team = teamRepository.save(new Team("expandTeam"));
+        memberRepository.save(new Member("expandMember1", 8100, team));
+        memberRepository.save(new Member("expandMember2", 8100, team));
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+        // when : expand가 없으면 team을 로딩하지 않는다.
+        List<Member> lazy = memberRepository.findAllExpanded(pageRequest, Set.of()).getContent();
+        assertThat(lazy).allMatch(m -> !Hibernate.isInitialized(m.getTeam()));
+        em.clear();
+
+        // team은 조인, team.members는 조회 후 초기화
+        List<Member> expanded = memberRepository.findAllExpanded(pageRequest, Set.of("team.members")).getContent();
+
+        // then
+        assertThat(expanded).extracting(Member::getUsername).containsExactly("expandMember2", "expandMember1");
+        assertThat(expanded).allMatch(m -> Hibernate.isInitialized(m.getTeam())
+                && Hibernate.isInitialized(m.getTeam().getMembers()));
+        assertThat(expanded.get(0).getTeam().getMembers()).hasSize(2);
+        // 연관관계가 아닌 속성(레파지토리 프록시가 변환하지 않고 그대로 던진다.)
+        assertThatThrownBy(() -> memberRepository.findAllExpanded(pageRequest, Set.of("username")))
+                .isInstanceOf(InvalidQueryParameterException.class);
+        // 허용하지 않은 정렬 속성
+        assertThatThrownBy(() -> memberRepository.findAllExpanded(PageRequest.of(0, 2, Sort.by("createdBy")), Set.of("team")))
+                .isInstanceOf(InvalidQueryParameterException.class);
+    }
+
+    @Test
+    public void findByNamesStrategies() {
+        // given
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("inListMember" + i, 10));
+            names.add("inListMember" + i);
+        }
+        names.add("inListMember0"); // 중복
+        names.add("inListMissing");
+        em.flush();
+        em.clear();
+
+        // when, then : 어떤 방법이든 결과는 같다.
+        for (InListStrategy strategy : InListStrategy.values()) {
+            assertThat(memberRepository.findByNamesUsing(names, strategy))
+                    .as(strategy.name())
+                    .extracting(Member::getUsername)
+                    .containsExactlyInAnyOrder("inListMember0", "inListMember1", "inListMember2",
+                            "inListMember3", "inListMember4");
+        }
+    }
+
+    @Test
+    public void inClauseParameterPadding() {
+        // when : 파라미터 3개, 4개
+        resetQueryCount();
+        memberRepository.findByNames(Arrays.asList("a", "b", "c"));
+        memberRepository.findByNames(Arrays.asList("a", "b", "c", "d"));
+
+        // then : 4개로 채워지므로 같은 SQL이다.
+        assertThat(QueryCountHolder.get().getStatements()).hasSize(1).containsValue(2);
+    }
+}
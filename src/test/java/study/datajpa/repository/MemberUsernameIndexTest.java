@@ -0,0 +1,76 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.ChunkedUpdateOptions;
+import study.datajpa.repository.support.MemberUsernameIndex;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.jdbc.QueryCountAssertions.assertSelectCount;
+import static study.datajpa.jdbc.QueryCountAssertions.resetQueryCount;
+
+// 인덱스는 커밋된 데이터와 flush 이벤트로 갱신되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+@SpringBootTest(properties = "datajpa.username-index.enabled=true")
+class MemberUsernameIndexTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberUsernameIndex usernameIndex;
+
+    @Test
+    public void skipMissingUsername() {
+        // given
+        String username = "index-" + UUID.randomUUID();
+        Member member = memberRepository.save(new Member(username, 10));
+
+        // when : 없는 username은 쿼리를 보내지 않는다.
+        resetQueryCount();
+        String missing = "missing-" + UUID.randomUUID();
+        assertThat(memberRepository.findOptionalByUsername(missing)).isEmpty();
+        assertThat(memberRepository.findMemberByUsername(missing)).isNull();
+        assertThat(memberRepository.findListByUsername(missing)).isEmpty();
+        assertThat(memberJpaRepository.findByUsername(missing)).isEmpty();
+        assertSelectCount(0);
+
+        // then : 있는 username은 DB에서 조회한다.
+        assertThat(memberRepository.findOptionalByUsername(username)).get()
+                .extracting(Member::getId).isEqualTo(member.getId());
+        assertThat(usernameIndex.stats().getSkippedCount()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    public void deleteAndRename() {
+        // given
+        String username = "rename-" + UUID.randomUUID();
+        Member member = memberRepository.save(new Member(username, 10));
+
+        // when
+        member.setUsername(username + "-new");
+        memberRepository.save(member);
+
+        // then
+        assertThat(usernameIndex.mightExist(username)).isFalse();
+        assertThat(usernameIndex.mightExist(username + "-new")).isTrue();
+
+        memberRepository.delete(member);
+        assertThat(usernameIndex.mightExist(username + "-new")).isFalse();
+    }
+
+    @Test
+    public void rebuildAfterBulkUpdate() {
+        // given
+        String username = "bulk-" + UUID.randomUUID();
+        memberRepository.save(new Member(username, 3000));
+
+        // when : 청크가 별도 트랜잭션으로 커밋된 뒤 인덱스를 다시 만든다.
+        memberRepository.bulkAgePlusChunked(3000, ChunkedUpdateOptions.builder().build());
+
+        // then
+        assertThat(usernameIndex.stats().isReady()).isTrue();
+        assertThat(memberRepository.findOptionalByUsername(username)).isPresent();
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.jdbc.QueryCountHolder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.jdbc.QueryCountAssertions.assertSelectCount;
+import static study.datajpa.jdbc.QueryCountAssertions.resetQueryCount;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void findTeamDtoPage() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            Team team = teamRepository.save(new Team("pageTeam" + i));
+            memberRepository.save(new Member("pageMember" + i + "a", 10, team));
+            memberRepository.save(new Member("pageMember" + i + "b", 20, team));
+        }
+        em.flush();
+        em.clear();
+
+        // when : 가장 최근에 저장한 팀 2개
+        resetQueryCount();
+        Page<TeamDto> page = teamRepository.findTeamDtoPage(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        // then
+        assertThat(page.getContent()).extracting(TeamDto::getName).containsExactly("pageTeam2", "pageTeam1");
+        assertThat(page.getContent().get(0).getMembers()).extracting(MemberDto::getUsername)
+                .containsExactly("pageMember2a", "pageMember2b"); // 회원 id 순서
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+
+        // id 페이징(limit), 팀 + 회원 fetch join, count
+        assertSelectCount(3);
+        Set<String> statements = QueryCountHolder.get().getStatements().keySet().stream()
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        assertThat(statements).filteredOn(sql -> sql.contains("limit") || sql.contains("fetch first"))
+                .hasSize(1)
+                .allMatch(sql -> !sql.contains("join member"));
+        assertThat(statements).filteredOn(sql -> sql.contains("join member"))
+                .hasSize(1)
+                .allMatch(sql -> !sql.contains("limit") && !sql.contains("fetch first"));
+    }
+}